@@ -1,8 +1,11 @@
 package eu.toolchain.async;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The asynchronous framework.
@@ -158,6 +161,36 @@ public interface AsyncFramework {
      */
     public <T> AsyncFuture<T> cancelled(AsyncFuture<T> future, LazyTransform<Void, ? extends T> transform);
 
+    /**
+     * Start a pipeline of transformations on the given future.
+     *
+     * All steps of the pipeline are applied from a single listener on {@code future}, without allocating an
+     * intermediate future for each step.
+     *
+     * @param future The source future of the pipeline.
+     * @param <T> type of the source future.
+     * @return A new pipeline.
+     * @see AsyncPipeline
+     */
+    public <T> AsyncPipeline<T> pipeline(AsyncFuture<T> future);
+
+    /**
+     * Build a new future that completes like the given future, unless it does not complete within the given duration.
+     * In that case the new future is failed with a {@link java.util.concurrent.TimeoutException} and the given future is
+     * cancelled.
+     *
+     * The timeout is tracked by a timer which is not blocking any thread, and which is cancelled if the future
+     * completes before the timeout. Listeners of a timed out future are run on the default executor if one is
+     * configured, and through the caller on the timer thread otherwise.
+     *
+     * @param future The future to time out.
+     * @param duration The duration after which the new future should be failed.
+     * @param unit The unit of the duration.
+     * @param <T> type of the future.
+     * @return A new future bound to the given future, or the given future if it is already completed.
+     */
+    public <T> AsyncFuture<T> timeout(AsyncFuture<T> future, long duration, TimeUnit unit);
+
     /**
      * Build a new future that is the result of collecting all the results in a collection.
      *
@@ -180,6 +213,33 @@ public interface AsyncFramework {
     public <S, T> AsyncFuture<T> collect(Collection<? extends AsyncFuture<? extends S>> futures,
             Collector<? super S, ? extends T> collector);
 
+    /**
+     * Build a new future that is the result of collecting all the results in a collection, in the same order as the
+     * provided futures.
+     *
+     * @param futures The collection of future to collect.
+     * @param <T> type of the collected future.
+     * @return A new future that is the result of collecting all results, where the result at every position belongs to
+     *         the future at the same position in {@code futures}.
+     */
+    public <T> AsyncFuture<List<T>> collectOrdered(Collection<? extends AsyncFuture<? extends T>> futures);
+
+    /**
+     * Build a new future that is the result of reducing the provided collection of futures using the provided
+     * collector.
+     *
+     * This is similar to {@link #collect(Collection, Collector)}, but the collector is given the results in the same
+     * order as the provided futures, instead of the order in which they completed.
+     *
+     * @param futures The collection of futures to collect.
+     * @param collector The implementation for how to reduce the collected futures.
+     * @param <S> source type of the collected futures.
+     * @param <T> target type the collected futures are being transformed into.
+     * @return A new future that is the result of reducing the collection of futures.
+     */
+    public <S, T> AsyncFuture<T> collectOrdered(Collection<? extends AsyncFuture<? extends S>> futures,
+            Collector<? super S, ? extends T> collector);
+
     /**
      * Build a new future that is the result of reducing the provided collection of futures using the provided
      * collector.
@@ -202,6 +262,56 @@ public interface AsyncFramework {
     public <S, T> AsyncFuture<T> collect(Collection<? extends AsyncFuture<? extends S>> futures,
             StreamCollector<? super S, ? extends T> collector);
 
+    /**
+     * Build a new future that is the result of reducing the provided collection of futures using the provided
+     * collector, where the collector is never invoked concurrently.
+     *
+     * This is similar to {@link #collect(Collection, StreamCollector)}, but calls into the collector are serialized
+     * without locking, which allows the collector to use plain, non-thread-safe state. A completing thread that finds
+     * the collector busy hands its result over to the thread currently invoking it, and returns immediately.
+     *
+     * The collector is invoked on the thread completing the futures, even if the framework is configured with a
+     * threaded caller.
+     *
+     * @param futures The collection of futures to collect.
+     * @param collector The implementation for how to reduce the collected futures.
+     * @param <S> source type of the collected futures.
+     * @param <T> target type the collected futures are being transformed into.
+     * @return A new future that is the result of reducing the collection of futures.
+     */
+    public <S, T> AsyncFuture<T> collectSerialized(Collection<? extends AsyncFuture<? extends S>> futures,
+            StreamCollector<? super S, ? extends T> collector);
+
+    /**
+     * Build a new future that is the result of collecting all the results in a collection, which fails as soon as any
+     * of the collected futures fails.
+     *
+     * When the returned future fails, or is cancelled, all collected futures are cancelled.
+     *
+     * @param futures The collection of future to collect.
+     * @param <T> type of the collected future.
+     * @return A new future that is the result of collecting all results.
+     * @see #collectFailFast(Collection, Collector)
+     */
+    public <T> AsyncFuture<Collection<T>> collectFailFast(Collection<? extends AsyncFuture<? extends T>> futures);
+
+    /**
+     * Build a new future that is the result of reducing the provided collection of futures using the provided
+     * collector, which fails as soon as any of the collected futures fails.
+     *
+     * This is similar to {@link #collect(Collection, Collector)}, but instead of waiting for all futures to complete,
+     * the returned future is failed with the first error as soon as it happens (or cancelled as soon as any future is
+     * cancelled). When the returned future fails, or is cancelled, all collected futures are cancelled.
+     *
+     * @param futures The collection of futures to collect.
+     * @param collector The implementation for how to reduce the collected futures.
+     * @param <S> source type of the collected futures.
+     * @param <T> target type the collected futures are being transformed into.
+     * @return A new future that is the result of reducing the collection of futures.
+     */
+    public <S, T> AsyncFuture<T> collectFailFast(Collection<? extends AsyncFuture<? extends S>> futures,
+            Collector<? super S, ? extends T> collector);
+
     /**
      * Collect the results from a collection of futures, then discard them.
      *
@@ -214,6 +324,19 @@ public interface AsyncFramework {
      */
     public <T> AsyncFuture<Void> collectAndDiscard(Collection<? extends AsyncFuture<T>> futures);
 
+    /**
+     * Collect the results from a collection of futures, then discard them, failing as soon as any of the futures
+     * fails.
+     *
+     * When the returned future fails, or is cancelled, all collected futures are cancelled.
+     *
+     * @param futures The collection of futures to collect.
+     * @param <T> type of the futures being collected and discarded.
+     * @return A new future that is the result of collecting the provided futures, but discarding their results.
+     * @see #collectFailFast(Collection, Collector)
+     */
+    public <T> AsyncFuture<Void> collectAndDiscardFailFast(Collection<? extends AsyncFuture<T>> futures);
+
     /**
      * Collect the result from a collection of futures, that are lazily created. Futures will be created using the given
      * {@code callables}, but will only create as many pending futures to be less than or equal to the given
@@ -224,6 +347,9 @@ public interface AsyncFramework {
      * This method is intended to be used for rate-limiting requests that could potentially be difficult to stop
      * cleanly.
      *
+     * No thread is blocked waiting for the collection to finish. The first futures are created on the calling thread,
+     * after which every completed future creates the next one on the thread that completed it.
+     *
      * @param callables The list of constructor methods.
      * @param collector The collector to reduce the result.
      * @param parallelism The number of futures that are allowed to be constructed at the same time.
@@ -235,6 +361,67 @@ public interface AsyncFramework {
             Collection<? extends Callable<? extends AsyncFuture<? extends S>>> callables,
             StreamCollector<? super S, ? extends T> collector, int parallelism);
 
+    /**
+     * Collect the result from a lazy, potentially unbounded, source of futures. Futures will be created by pulling
+     * callables from the given iterator, which is only advanced when fewer than {@code parallelism} futures are
+     * pending.
+     *
+     * This is similar to {@link #eventuallyCollect(Collection, StreamCollector, int)}, but since callables are only
+     * pulled from the iterator when they are about to be started, memory usage is proportional to the parallelism
+     * rather than to the total number of callables.
+     *
+     * The iterator is never advanced by more than one thread at a time, but it might be advanced by different threads.
+     * When a single future is cancelled, or failed, no more callables are pulled from the iterator.
+     *
+     * @param callables The source of constructor methods.
+     * @param collector The collector to reduce the result.
+     * @param parallelism The number of futures that are allowed to be constructed at the same time.
+     * @param <S> source type of the collected futures.
+     * @param <T> target type the collected futures are being transformed into.
+     * @return A future that will be resolved when the iterator has been exhausted, and all of the collected futures
+     *         are resolved.
+     */
+    public <S, T> AsyncFuture<T> eventuallyCollect(
+            Iterator<? extends Callable<? extends AsyncFuture<? extends S>>> callables,
+            StreamCollector<? super S, ? extends T> collector, int parallelism);
+
+    /**
+     * Collect the result from a collection of futures, that are lazily created, with a limit on the number of pending
+     * futures that might change at runtime.
+     *
+     * This is similar to {@link #eventuallyCollect(Collection, StreamCollector, int)}, but the limit is read every
+     * time a new future is about to be created, and the latency of every collected future is reported to it. This
+     * allows for example {@code AimdConcurrencyLimit} to adapt the limit to how the futures perform.
+     *
+     * @param callables The list of constructor methods.
+     * @param collector The collector to reduce the result.
+     * @param limit The limit of how many futures are allowed to be constructed at the same time.
+     * @param <S> source type of the collected futures.
+     * @param <T> target type the collected futures are being transformed into.
+     * @return A future that will be resolved when all of the collected futures are resolved.
+     */
+    public <S, T> AsyncFuture<T> eventuallyCollect(
+            Collection<? extends Callable<? extends AsyncFuture<? extends S>>> callables,
+            StreamCollector<? super S, ? extends T> collector, ConcurrencyLimit limit);
+
+    /**
+     * Collect the result from a lazy, potentially unbounded, source of futures, with a limit on the number of pending
+     * futures that might change at runtime.
+     *
+     * @param callables The source of constructor methods.
+     * @param collector The collector to reduce the result.
+     * @param limit The limit of how many futures are allowed to be constructed at the same time.
+     * @param <S> source type of the collected futures.
+     * @param <T> target type the collected futures are being transformed into.
+     * @return A future that will be resolved when the iterator has been exhausted, and all of the collected futures
+     *         are resolved.
+     * @see #eventuallyCollect(Iterator, StreamCollector, int)
+     * @see #eventuallyCollect(Collection, StreamCollector, ConcurrencyLimit)
+     */
+    public <S, T> AsyncFuture<T> eventuallyCollect(
+            Iterator<? extends Callable<? extends AsyncFuture<? extends S>>> callables,
+            StreamCollector<? super S, ? extends T> collector, ConcurrencyLimit limit);
+
     /**
      * Call the given callable on the default executor and track the result using a future.
      *
@@ -278,4 +465,28 @@ public interface AsyncFramework {
      * @return The managed reference.
      */
     public <T> Managed<T> managed(ManagedSetup<T> setup);
+
+    /**
+     * Setup a managed pool of references, which are never evicted for being idle.
+     *
+     * @param setup The setup method for the pooled references.
+     * @param size The maximum number of references in the pool.
+     * @param <T> type of the pooled references.
+     * @return The managed pool.
+     * @see #managedPool(ManagedSetup, int, long, TimeUnit)
+     */
+    public <T> ManagedPool<T> managedPool(ManagedSetup<T> setup, int size);
+
+    /**
+     * Setup a managed pool of references.
+     *
+     * @param setup The setup method for the pooled references.
+     * @param size The maximum number of references in the pool.
+     * @param idleTimeout How long a reference may be idle before it is destructed, {@code 0} to never evict idle
+     *            references.
+     * @param unit Unit of the idle timeout.
+     * @param <T> type of the pooled references.
+     * @return The managed pool.
+     */
+    public <T> ManagedPool<T> managedPool(ManagedSetup<T> setup, int size, long idleTimeout, TimeUnit unit);
 }
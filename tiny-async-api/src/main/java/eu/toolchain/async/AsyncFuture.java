@@ -2,6 +2,7 @@ package eu.toolchain.async;
 
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An interface that defines a contract with a computation that could be asynchronous.
@@ -284,4 +285,18 @@ public interface AsyncFuture<T> extends java.util.concurrent.Future<T> {
      */
     @Deprecated
     public AsyncFuture<T> cancelled(LazyTransform<Void, T> transform);
+
+    /**
+     * Build a new future that completes like this future, unless it does not complete within the given duration. In
+     * that case the new future is failed with a {@link java.util.concurrent.TimeoutException} and this future is
+     * cancelled.
+     *
+     * This has no effect on a future that is already completed.
+     *
+     * @param duration The duration after which the new future should be failed.
+     * @param unit The unit of the duration.
+     * @return A new future bound to this future, or this future if it is already completed.
+     * @see AsyncFramework#timeout(AsyncFuture, long, TimeUnit)
+     */
+    public AsyncFuture<T> timeout(long duration, TimeUnit unit);
 }
@@ -0,0 +1,99 @@
+package eu.toolchain.async;
+
+/**
+ * A chain of transformations that is applied to a single source future in one step.
+ *
+ * <p>
+ * Chaining transformations directly on a future creates one intermediate future, and one listener registration for
+ * every step. A pipeline instead collects all steps, and applies them in order from a single listener when the source
+ * future is completed, with one resulting future.
+ * </p>
+ *
+ * <pre>
+ * {@code
+ *   final AsyncFuture<Double> future = async.pipeline(first)
+ *       .transform(new Transform<Integer, Double>() { ... })
+ *       .catchFailed(new Transform<Throwable, Double>() { ... })
+ *       .future();
+ * }
+ * </pre>
+ *
+ * <p>
+ * The semantics of every step are the same as the corresponding method on {@link AsyncFuture}.
+ * </p>
+ *
+ * <p>
+ * A pipeline is a builder and is <em>not</em> thread-safe. Every method returns the same pipeline instance, which must
+ * not be used after {@link #future()} has been called.
+ * </p>
+ *
+ * @author udoprog
+ *
+ * @param <T> The type of the value at the current end of the pipeline.
+ */
+public interface AsyncPipeline<T> {
+    /**
+     * Add a step that transforms the value.
+     *
+     * @param transform The transformation to use.
+     * @param <R> The type of the transformed value.
+     * @return This pipeline.
+     * @see AsyncFuture#transform(Transform)
+     */
+    public <R> AsyncPipeline<R> transform(Transform<? super T, ? extends R> transform);
+
+    /**
+     * Add a step that lazily transforms the value.
+     *
+     * @param transform The transformation to use.
+     * @param <R> The type of the transformed value.
+     * @return This pipeline.
+     * @see AsyncFuture#lazyTransform(LazyTransform)
+     */
+    public <R> AsyncPipeline<R> lazyTransform(LazyTransform<? super T, R> transform);
+
+    /**
+     * Add a step that transforms an error into something useful.
+     *
+     * @param transform The transformation to use.
+     * @return This pipeline.
+     * @see AsyncFuture#catchFailed(Transform)
+     */
+    public AsyncPipeline<T> catchFailed(Transform<Throwable, ? extends T> transform);
+
+    /**
+     * Add a step that lazily transforms an error into something useful.
+     *
+     * @param transform The transformation to use.
+     * @return This pipeline.
+     * @see AsyncFuture#lazyCatchFailed(LazyTransform)
+     */
+    public AsyncPipeline<T> lazyCatchFailed(LazyTransform<Throwable, T> transform);
+
+    /**
+     * Add a step that transforms something cancelled into something useful.
+     *
+     * @param transform The transformation to use.
+     * @return This pipeline.
+     * @see AsyncFuture#catchCancelled(Transform)
+     */
+    public AsyncPipeline<T> catchCancelled(Transform<Void, ? extends T> transform);
+
+    /**
+     * Add a step that lazily transforms something cancelled into something useful.
+     *
+     * @param transform The transformation to use.
+     * @return This pipeline.
+     * @see AsyncFuture#lazyCatchCancelled(LazyTransform)
+     */
+    public AsyncPipeline<T> lazyCatchCancelled(LazyTransform<Void, T> transform);
+
+    /**
+     * Build the future that is the result of applying all steps of this pipeline to the source future.
+     *
+     * Cancelling the returned future will cancel the source future.
+     *
+     * @return A future that is the result of the pipeline.
+     */
+    public AsyncFuture<T> future();
+}
@@ -0,0 +1,29 @@
+package eu.toolchain.async;
+
+/**
+ * A limit on the number of pending futures, which might be adjusted at runtime based on how the futures perform.
+ *
+ * Implementations must be thread-safe, samples are reported from whatever thread completes a future.
+ *
+ * @see AsyncFramework#eventuallyCollect(java.util.Collection, StreamCollector, ConcurrencyLimit)
+ */
+public interface ConcurrencyLimit {
+    /**
+     * The current limit, this is read every time a new future is about to be started.
+     *
+     * @return The number of futures that are currently allowed to be pending at the same time, at least one.
+     */
+    public int limit();
+
+    /**
+     * Report a sample for a future that has completed.
+     *
+     * A dropped future also ends the collection it belongs to, so no more futures are started by that collection.
+     * Adjusting the limit on a drop is still useful when the same limit is shared by later or concurrent collections.
+     *
+     * @param startNanos The value of {@link System#nanoTime()} when the future was started.
+     * @param latencyNanos The number of nanoseconds the future took to complete.
+     * @param dropped {@code true} if the future was failed or cancelled.
+     */
+    public void sample(long startNanos, long latencyNanos, boolean dropped);
+}
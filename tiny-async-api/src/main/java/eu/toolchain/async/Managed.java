@@ -93,6 +93,9 @@ package eu.toolchain.async;
 public interface Managed<T> {
     /**
      * System property that if set to 'yes', will cause the managed references to be traced.
+     *
+     * Outstanding borrowed references are kept in thread-local buffers, which are only aggregated when the managed
+     * reference is printed, making tracing cheap enough to keep on permanently.
      */
     public static final String TRACING = "eu.toolchain.async.Managed.trace";
 
@@ -101,6 +104,19 @@ public interface Managed<T> {
      */
     public static final String CAPTURE_STACK = "eu.toolchain.async.Manabed.captureStack";
 
+    /**
+     * System property for the maximum number of frames reported for a captured stack, defaults to '16'.
+     */
+    public static final String STACK_DEPTH = "eu.toolchain.async.Managed.stackDepth";
+
+    /**
+     * System property for how often borrowed references are tracked for leaks, one in every {@code N} borrows. Set to
+     * '0' to disable leak detection, defaults to '128'.
+     *
+     * Leaks are reported through {@link AsyncCaller#referenceLeaked(Object, StackTraceElement[])}.
+     */
+    public static final String LEAK_SAMPLING = "eu.toolchain.async.Managed.leakSampling";
+
     public AsyncFuture<Void> start();
 
     /**
@@ -120,6 +136,25 @@ public interface Managed<T> {
      */
     public AsyncFuture<Void> stop();
 
+    /**
+     * Replace the underlying managed reference with a newly constructed one, without draining borrowed references.
+     *
+     * <p>
+     * A reload will do the following (in order).
+     * </p>
+     *
+     * <ul>
+     * <li>construct a new reference using {@link ManagedSetup#construct()}</li>
+     * <li>atomically replace the current reference, future borrowed references will use the new reference</li>
+     * <li>wait for the number of references borrowed from the <em>previous</em> reference to become zero</li>
+     * <li>destruct the previous reference using {@link ManagedSetup#destruct(Object)}</li>
+     * </ul>
+     *
+     * @return A future that will be resolved when the previous reference is destructed, or cancelled if the managed
+     *         reference is not started.
+     */
+    public AsyncFuture<Void> reload();
+
     /**
      * Borrow the underlying reference.
      *
@@ -0,0 +1,64 @@
+package eu.toolchain.async;
+
+/**
+ * A managed pool of up to a fixed number of references, each of which is exclusively borrowed.
+ *
+ * <p>
+ * References are constructed on demand using {@link ManagedSetup#construct()} until the pool is full. Released
+ * references are returned to the pool and handed to the next borrower, if configured, references which have been idle
+ * for too long are destructed using {@link ManagedSetup#destruct(Object)}.
+ * </p>
+ *
+ * <p>
+ * When all references are borrowed, {@link #acquire()} queues the caller until a reference is released.
+ * {@link #borrow()} never waits, it returns an invalid reference if no idle reference is available.
+ * </p>
+ *
+ * <p>
+ * {@link #stop()} cancels all queued callers and destructs every reference once it has been released.
+ * </p>
+ *
+ * @param <T> The type of the pooled references.
+ */
+public interface ManagedPool<T> extends Managed<T> {
+    /**
+     * Acquire a reference from the pool, waiting for one to be released if the pool is exhausted.
+     *
+     * Cancelling the returned future removes the caller from the queue.
+     *
+     * @return A future that will be resolved with an exclusively borrowed reference, or cancelled if the pool is not
+     *         started.
+     */
+    public AsyncFuture<Borrowed<T>> acquire();
+
+    /**
+     * Borrow an idle reference from the pool, if available.
+     *
+     * @return An exclusively borrowed reference, or an invalid reference if no reference is idle.
+     */
+    @Override
+    public Borrowed<T> borrow();
+
+    /**
+     * Replace all references in the pool.
+     *
+     * Idle references are destructed immediately, borrowed references are destructed when released. New references are
+     * constructed on demand.
+     *
+     * @return A future that is resolved when every reference from before the reload has been destructed, or cancelled if
+     *         the pool is not started.
+     */
+    @Override
+    public AsyncFuture<Void> reload();
+
+    /**
+     * Acquire a reference and execute the given action, waiting for a reference if the pool is exhausted.
+     *
+     * The reference will be released when the action's future is finished.
+     *
+     * @param action The action to perform on the acquired reference.
+     * @return The future returned by the action.
+     */
+    @Override
+    public <R> AsyncFuture<R> doto(ManagedAction<T, R> action);
+}
@@ -0,0 +1,84 @@
+package eu.toolchain.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.TinyAsync;
+
+/**
+ * Running blocking callables through {@code AsyncFramework#call} on platform threads and on virtual threads.
+ *
+ * The {@code virtual} executor requires a runtime with support for virtual threads (Java 21 or later).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallBenchmark {
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({ "platform", "virtual" })
+    public String executor;
+
+    @Param({ "1000", "10000" })
+    public int calls;
+
+    @Param({ "1" })
+    public int blockMillis;
+
+    private TinyAsync async;
+
+    @Setup
+    public void setup() {
+        switch (executor) {
+        case "platform":
+            async = TinyAsync.builder().executor(Executors.newFixedThreadPool(PLATFORM_THREADS)).build();
+            break;
+        case "virtual":
+            async = TinyAsync.builder().virtualThreadExecutor().build();
+            break;
+        default:
+            throw new IllegalArgumentException(executor);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        async.defaultExecutor().shutdown();
+    }
+
+    @Benchmark
+    public Object blockingCalls() throws Exception {
+        final List<AsyncFuture<Integer>> futures = new ArrayList<>(calls);
+
+        for (int i = 0; i < calls; i++) {
+            final int value = i;
+
+            futures.add(async.call(() -> {
+                Thread.sleep(blockMillis);
+                return value;
+            }));
+        }
+
+        return async.collect(futures).get();
+    }
+}
@@ -0,0 +1,96 @@
+package eu.toolchain.benchmarks;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.toolchain.async.AsyncCaller;
+import eu.toolchain.async.ExecutorAsyncCaller;
+import eu.toolchain.async.FutureResolved;
+import eu.toolchain.async.PrintStreamDefaultAsyncCaller;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import eu.toolchain.async.TrampolineAsyncCaller;
+import eu.toolchain.async.concurrent.ConcurrentResolvableFuture;
+
+/**
+ * Resolving a future with many listeners through the different caller implementations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallerBenchmark {
+    private static final int LISTENERS = 1000;
+
+    @Param({ "direct", "trampoline", "executor", "executor-batch-64", "executor-batch-all" })
+    public String caller;
+
+    private ExecutorService executor;
+    private TinyAsync async;
+    private AsyncCaller underTest;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        async = TinyAsync.builder().executor(executor).build();
+
+        final AsyncCaller direct = new PrintStreamDefaultAsyncCaller(System.err);
+
+        switch (caller) {
+        case "direct":
+            underTest = direct;
+            break;
+        case "trampoline":
+            underTest = new TrampolineAsyncCaller(direct);
+            break;
+        case "executor":
+            underTest = new ExecutorAsyncCaller(executor, direct);
+            break;
+        case "executor-batch-64":
+            underTest = new ExecutorAsyncCaller(executor, direct, 64);
+            break;
+        case "executor-batch-all":
+            underTest = new ExecutorAsyncCaller(executor, direct, Integer.MAX_VALUE);
+            break;
+        default:
+            throw new IllegalArgumentException(caller);
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public Object resolve() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(LISTENERS);
+        final ResolvableFuture<Object> future = new ConcurrentResolvableFuture<>(async, underTest);
+
+        final FutureResolved<Object> resolved = result -> latch.countDown();
+
+        for (int i = 0; i < LISTENERS; i++)
+            future.on(resolved);
+
+        future.resolve(this);
+        latch.await();
+        return future;
+    }
+}
@@ -0,0 +1,131 @@
+package eu.toolchain.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.StreamCollector;
+import eu.toolchain.async.TinyAsync;
+
+/**
+ * Collecting a number of pending futures, which are resolved after the collect has been set up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectBenchmark {
+    private static final int PARALLELISM = 10;
+
+    @Param({ "10", "1000", "100000" })
+    public int size;
+
+    private ExecutorService executor;
+    private AsyncFramework async;
+
+    private List<Callable<AsyncFuture<Integer>>> callables;
+
+    private final StreamCollector<Integer, Integer> sum = new StreamCollector<Integer, Integer>() {
+        private int sum;
+
+        @Override
+        public void resolved(Integer result) throws Exception {
+            synchronized (this) {
+                sum += result;
+            }
+        }
+
+        @Override
+        public void failed(Throwable cause) throws Exception {
+        }
+
+        @Override
+        public void cancelled() throws Exception {
+        }
+
+        @Override
+        public Integer end(int resolved, int failed, int cancelled) throws Exception {
+            synchronized (this) {
+                final int result = sum;
+                sum = 0;
+                return result;
+            }
+        }
+    };
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        async = TinyAsync.builder().executor(executor).build();
+
+        callables = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            final int value = i;
+            callables.add(() -> async.resolved(value));
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public Object tinyCollect() throws Exception {
+        final List<ResolvableFuture<Integer>> futures = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++)
+            futures.add(async.<Integer> future());
+
+        final AsyncFuture<?> collected = async.collect(futures);
+
+        for (int i = 0; i < size; i++)
+            futures.get(i).resolve(i);
+
+        return collected.getNow();
+    }
+
+    @Benchmark
+    public Object completableCollect() throws Exception {
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<Integer>[] futures = new CompletableFuture[size];
+
+        for (int i = 0; i < size; i++)
+            futures[i] = new CompletableFuture<>();
+
+        final CompletableFuture<Void> collected = CompletableFuture.allOf(futures);
+
+        for (int i = 0; i < size; i++)
+            futures[i].complete(i);
+
+        return collected.getNow(null);
+    }
+
+    @Benchmark
+    public Object tinyEventuallyCollect() throws Exception {
+        return async.eventuallyCollect(callables, sum, PARALLELISM).get();
+    }
+}
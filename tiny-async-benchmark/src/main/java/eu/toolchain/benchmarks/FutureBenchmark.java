@@ -0,0 +1,101 @@
+package eu.toolchain.benchmarks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.FutureResolved;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+
+/**
+ * Creating futures, registering listeners, and resolving futures with listeners.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FutureBenchmark {
+    private AsyncFramework async;
+
+    private FutureResolved<Object> resolved;
+    private Consumer<Object> consumer;
+
+    @Setup
+    public void setup(final Blackhole blackhole) {
+        this.async = TinyAsync.builder().build();
+        this.resolved = blackhole::consume;
+        this.consumer = blackhole::consume;
+    }
+
+    /**
+     * The number of listeners added before resolving.
+     */
+    @State(Scope.Thread)
+    public static class Listeners {
+        @Param({ "1", "10", "100" })
+        public int listeners;
+    }
+
+    @Benchmark
+    public Object tinyCreate() {
+        return async.future();
+    }
+
+    @Benchmark
+    public Object completableCreate() {
+        return new CompletableFuture<Object>();
+    }
+
+    @Benchmark
+    public Object tinyListen() {
+        final ResolvableFuture<Object> future = async.future();
+        future.on(resolved);
+        return future;
+    }
+
+    @Benchmark
+    public Object completableListen() {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        future.thenAccept(consumer);
+        return future;
+    }
+
+    @Benchmark
+    public Object tinyResolve(final Listeners l) {
+        final ResolvableFuture<Object> future = async.future();
+
+        for (int i = 0; i < l.listeners; i++)
+            future.on(resolved);
+
+        future.resolve(this);
+        return future;
+    }
+
+    @Benchmark
+    public Object completableResolve(final Listeners l) {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        for (int i = 0; i < l.listeners; i++)
+            future.thenAccept(consumer);
+
+        future.complete(this);
+        return future;
+    }
+}
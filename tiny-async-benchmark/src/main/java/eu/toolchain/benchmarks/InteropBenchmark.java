@@ -0,0 +1,122 @@
+package eu.toolchain.benchmarks;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureCancelled;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import eu.toolchain.async.completable.CompletableFutures;
+
+/**
+ * Adapting between futures and completable futures, and completing the source.
+ *
+ * The {@code manual} variants are the hand-written bridges that the adapters replace, the {@code adapter} variants use
+ * {@link CompletableFutures}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InteropBenchmark {
+    private final Object value = new Object();
+
+    private AsyncFramework async;
+
+    @Setup
+    public void setup() {
+        this.async = TinyAsync.builder().build();
+    }
+
+    @Benchmark
+    public Object toCompletableManual() {
+        final ResolvableFuture<Object> source = async.future();
+        final CompletableFuture<Object> target = new CompletableFuture<>();
+
+        source.on(new FutureDone<Object>() {
+            @Override
+            public void resolved(Object result) {
+                target.complete(result);
+            }
+
+            @Override
+            public void failed(Throwable cause) {
+                target.completeExceptionally(cause);
+            }
+
+            @Override
+            public void cancelled() {
+                target.cancel(false);
+            }
+        });
+
+        source.resolve(value);
+        return target.getNow(null);
+    }
+
+    @Benchmark
+    public Object toCompletableAdapter() {
+        final ResolvableFuture<Object> source = async.future();
+        final CompletableFuture<Object> target = CompletableFutures.toCompletableFuture(source);
+        source.resolve(value);
+        return target.getNow(null);
+    }
+
+    @Benchmark
+    public Object fromCompletableManual() throws Exception {
+        final CompletableFuture<Object> source = new CompletableFuture<>();
+        final ResolvableFuture<Object> target = async.future();
+
+        source.whenComplete((result, error) -> {
+            if (error == null) {
+                target.resolve(result);
+                return;
+            }
+
+            final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+
+            if (cause instanceof CancellationException) {
+                target.cancel();
+                return;
+            }
+
+            target.fail(cause);
+        });
+
+        target.on((FutureCancelled) () -> source.cancel(false));
+
+        source.complete(value);
+        return target.getNow();
+    }
+
+    @Benchmark
+    public Object fromCompletableAdapter() throws Exception {
+        final CompletableFuture<Object> source = new CompletableFuture<>();
+        final AsyncFuture<Object> target = CompletableFutures.fromCompletionStage(async, source);
+        source.complete(value);
+        return target.getNow();
+    }
+
+    @Benchmark
+    public Object fromCompletedAdapter() throws Exception {
+        return CompletableFutures.fromCompletionStage(async, CompletableFuture.completedFuture(value)).getNow();
+    }
+}
@@ -0,0 +1,133 @@
+package eu.toolchain.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.Borrowed;
+import eu.toolchain.async.Managed;
+import eu.toolchain.async.ManagedAction;
+import eu.toolchain.async.ManagedPool;
+import eu.toolchain.async.ManagedSetup;
+import eu.toolchain.async.TinyAsync;
+
+/**
+ * Borrowing a managed reference, from a single thread and from many threads at once.
+ *
+ * The {@code pool} variants borrow idle references from a pool with one reference per available processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManagedBenchmark {
+    private AsyncFramework async;
+    private Managed<Object> managed;
+    private ManagedPool<Object> pool;
+    private ManagedAction<Object, Object> action;
+
+    @Setup
+    public void setup() throws Exception {
+        async = TinyAsync.builder().build();
+
+        final ManagedSetup<Object> setup = new ManagedSetup<Object>() {
+            @Override
+            public AsyncFuture<Object> construct() throws Exception {
+                return async.resolved(new Object());
+            }
+
+            @Override
+            public AsyncFuture<Void> destruct(Object value) throws Exception {
+                return async.resolved();
+            }
+        };
+
+        managed = async.managed(setup);
+        managed.start().get();
+
+        final int size = Runtime.getRuntime().availableProcessors();
+
+        pool = async.managedPool(setup, size);
+        pool.start().get();
+
+        // construct all pooled references up front.
+        final List<Borrowed<Object>> warmup = new ArrayList<>();
+
+        for (int i = 0; i < size; i++)
+            warmup.add(pool.acquire().get());
+
+        for (final Borrowed<Object> b : warmup)
+            b.release();
+
+        action = async::resolved;
+    }
+
+    @TearDown
+    public void teardown() throws Exception {
+        managed.stop().get();
+        pool.stop().get();
+    }
+
+    @Benchmark
+    public Object doto() {
+        return managed.doto(action);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object dotoContended() {
+        return managed.doto(action);
+    }
+
+    @Benchmark
+    public Object borrow() {
+        try (final Borrowed<Object> b = managed.borrow()) {
+            return b.get();
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object borrowContended() {
+        try (final Borrowed<Object> b = managed.borrow()) {
+            return b.get();
+        }
+    }
+
+    @Benchmark
+    public boolean poolBorrow() {
+        try (final Borrowed<Object> b = pool.borrow()) {
+            return b.isValid();
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean poolBorrowContended() {
+        try (final Borrowed<Object> b = pool.borrow()) {
+            return b.isValid();
+        }
+    }
+
+    @Benchmark
+    public Object poolDoto() {
+        return pool.doto(action);
+    }
+}
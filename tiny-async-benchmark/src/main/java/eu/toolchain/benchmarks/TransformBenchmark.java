@@ -0,0 +1,82 @@
+package eu.toolchain.benchmarks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.LazyTransform;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+import eu.toolchain.async.Transform;
+
+/**
+ * A six step chain of transformations on a pending future, which is then resolved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+    private AsyncFramework async;
+
+    private Transform<Integer, Integer> increment;
+    private LazyTransform<Integer, Integer> lazyIncrement;
+    private Transform<Throwable, Integer> recover;
+
+    @Setup
+    public void setup() {
+        async = TinyAsync.builder().build();
+        increment = value -> value + 1;
+        lazyIncrement = value -> async.resolved(value + 1);
+        recover = cause -> 0;
+    }
+
+    @Benchmark
+    public Object tinyTransform() throws Exception {
+        final ResolvableFuture<Integer> source = async.future();
+
+        final AsyncFuture<Integer> future = source.transform(increment).lazyTransform(lazyIncrement)
+                .catchFailed(recover).transform(increment).lazyTransform(lazyIncrement).transform(increment);
+
+        source.resolve(0);
+        return future.getNow();
+    }
+
+    @Benchmark
+    public Object tinyPipeline() throws Exception {
+        final ResolvableFuture<Integer> source = async.future();
+
+        final AsyncFuture<Integer> future = async.pipeline(source).transform(increment).lazyTransform(lazyIncrement)
+                .catchFailed(recover).transform(increment).lazyTransform(lazyIncrement).transform(increment).future();
+
+        source.resolve(0);
+        return future.getNow();
+    }
+
+    @Benchmark
+    public Object completableTransform() throws Exception {
+        final CompletableFuture<Integer> source = new CompletableFuture<>();
+
+        final CompletableFuture<Integer> future = source.thenApply(value -> value + 1)
+                .thenCompose(value -> CompletableFuture.completedFuture(value + 1)).exceptionally(cause -> 0)
+                .thenApply(value -> value + 1).thenCompose(value -> CompletableFuture.completedFuture(value + 1))
+                .thenApply(value -> value + 1);
+
+        source.complete(0);
+        return future.getNow(null);
+    }
+}
@@ -0,0 +1,179 @@
+package eu.toolchain.async.completable;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureCancelled;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.ResolvableFuture;
+
+/**
+ * Adapters between {@link AsyncFuture} and {@link CompletionStage}.
+ *
+ * <p>
+ * The adapters complete the other side directly from the thread completing the source, no executor is involved.
+ * Cancellation is propagated in both directions, cancelling the adapter cancels the source.
+ * </p>
+ *
+ * <p>
+ * Adapting a completable future built by {@link #toCompletableFuture(AsyncFuture)} back returns the original future.
+ * </p>
+ */
+public final class CompletableFutures {
+    private CompletableFutures() {
+    }
+
+    /**
+     * Adapt the given future into a {@link CompletableFuture}.
+     *
+     * @param future The future to adapt.
+     * @param <T> The type of the future.
+     * @return A completable future that is completed when the given future is, cancelling it cancels the given future.
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(final AsyncFuture<T> future) {
+        if (future == null)
+            throw new NullPointerException("future");
+
+        final AsyncCompletableFuture<T> target = new AsyncCompletableFuture<T>(future);
+        future.on(target);
+        return target;
+    }
+
+    /**
+     * Adapt the given completion stage into an {@link AsyncFuture}.
+     *
+     * If the stage supports {@link CompletionStage#toCompletableFuture()}, cancelling the returned future cancels the
+     * stage.
+     *
+     * @param async Framework to build the returned future with.
+     * @param stage The stage to adapt.
+     * @param <T> The type of the stage.
+     * @return A future that is completed when the given stage is.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AsyncFuture<T> fromCompletionStage(final AsyncFramework async, final CompletionStage<T> stage) {
+        if (stage == null)
+            throw new NullPointerException("stage");
+
+        if (stage instanceof AsyncCompletableFuture)
+            return ((AsyncCompletableFuture<T>) stage).source;
+
+        if (stage instanceof CompletableFuture) {
+            final CompletableFuture<T> completable = (CompletableFuture<T>) stage;
+
+            if (completable.isDone())
+                return completed(async, completable);
+        }
+
+        final ResolvableFuture<T> target = async.future();
+        final StageBridge<T> bridge = new StageBridge<T>(target, stage);
+        target.on(bridge);
+        stage.whenComplete(bridge);
+        return target;
+    }
+
+    /**
+     * Build an immediate future from an already completed stage, without registering any listeners.
+     */
+    private static <T> AsyncFuture<T> completed(final AsyncFramework async, final CompletableFuture<T> completable) {
+        try {
+            return async.resolved(completable.getNow(null));
+        } catch (final CancellationException e) {
+            return async.cancelled();
+        } catch (final CompletionException e) {
+            return async.failed(e.getCause());
+        }
+    }
+
+    private static Throwable unwrap(final Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null)
+            return error.getCause();
+
+        return error;
+    }
+
+    /**
+     * A completable future that is completed by, and cancels, an {@link AsyncFuture}.
+     */
+    static final class AsyncCompletableFuture<T> extends CompletableFuture<T> implements FutureDone<T> {
+        private final AsyncFuture<T> source;
+
+        AsyncCompletableFuture(final AsyncFuture<T> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+
+            if (cancelled)
+                source.cancel();
+
+            return cancelled;
+        }
+
+        @Override
+        public void resolved(final T result) {
+            complete(result);
+        }
+
+        @Override
+        public void failed(final Throwable cause) {
+            completeExceptionally(cause);
+        }
+
+        @Override
+        public void cancelled() {
+            super.cancel(false);
+        }
+    }
+
+    /**
+     * Completes a future when a stage completes, and cancels the stage when the future is cancelled.
+     */
+    static final class StageBridge<T> implements BiConsumer<T, Throwable>, FutureCancelled {
+        private final ResolvableFuture<T> target;
+        private final CompletionStage<T> stage;
+
+        StageBridge(final ResolvableFuture<T> target, final CompletionStage<T> stage) {
+            this.target = target;
+            this.stage = stage;
+        }
+
+        @Override
+        public void accept(final T result, final Throwable error) {
+            if (error == null) {
+                target.resolve(result);
+                return;
+            }
+
+            final Throwable cause = unwrap(error);
+
+            if (cause instanceof CancellationException) {
+                target.cancel();
+                return;
+            }
+
+            target.fail(cause);
+        }
+
+        @Override
+        public void cancelled() {
+            final CompletableFuture<T> completable;
+
+            try {
+                completable = stage.toCompletableFuture();
+            } catch (final UnsupportedOperationException e) {
+                // stage does not support being cancelled.
+                return;
+            }
+
+            completable.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package eu.toolchain.async.completable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+
+public class CompletableFuturesTest {
+    private final Object result = new Object();
+    private final Exception e = new Exception();
+
+    private AsyncFramework async;
+
+    @Before
+    public void setup() {
+        async = TinyAsync.builder().build();
+    }
+
+    @Test
+    public void testToCompletableResolved() throws Exception {
+        final ResolvableFuture<Object> source = async.future();
+        final CompletableFuture<Object> target = CompletableFutures.toCompletableFuture(source);
+
+        assertFalse(target.isDone());
+        source.resolve(result);
+        assertSame(result, target.getNow(null));
+    }
+
+    @Test
+    public void testToCompletableFailed() throws Exception {
+        final ResolvableFuture<Object> source = async.future();
+        final CompletableFuture<Object> target = CompletableFutures.toCompletableFuture(source);
+
+        source.fail(e);
+
+        try {
+            target.get();
+        } catch (ExecutionException error) {
+            assertSame(e, error.getCause());
+            return;
+        }
+
+        throw new AssertionError("expected failure");
+    }
+
+    @Test
+    public void testToCompletableCancelPropagates() throws Exception {
+        final ResolvableFuture<Object> source = async.future();
+        final CompletableFuture<Object> target = CompletableFutures.toCompletableFuture(source);
+
+        target.cancel(false);
+        assertTrue(source.isCancelled());
+
+        final ResolvableFuture<Object> source2 = async.future();
+        final CompletableFuture<Object> target2 = CompletableFutures.toCompletableFuture(source2);
+
+        source2.cancel();
+        assertTrue(target2.isCancelled());
+    }
+
+    @Test
+    public void testFromCompletionStage() throws Exception {
+        final CompletableFuture<Object> source = new CompletableFuture<>();
+        final AsyncFuture<Object> target = CompletableFutures.fromCompletionStage(async, source);
+
+        assertFalse(target.isDone());
+        source.complete(result);
+        assertSame(result, target.getNow());
+    }
+
+    @Test
+    public void testFromCompletionStageFailed() throws Exception {
+        final CompletableFuture<Object> source = new CompletableFuture<>();
+        final AsyncFuture<Object> target = CompletableFutures.fromCompletionStage(async, source);
+
+        source.completeExceptionally(e);
+        assertSame(e, target.cause());
+
+        final AsyncFuture<Object> dependent = CompletableFutures.fromCompletionStage(async,
+                new CompletableFuture<Object>().thenApply(v -> v));
+        assertFalse(dependent.isDone());
+    }
+
+    @Test
+    public void testFromCompletionStageCancelPropagates() throws Exception {
+        final CompletableFuture<Object> source = new CompletableFuture<>();
+        final AsyncFuture<Object> target = CompletableFutures.fromCompletionStage(async, source);
+
+        target.cancel();
+        assertTrue(source.isCancelled());
+
+        final CompletableFuture<Object> source2 = new CompletableFuture<>();
+        final AsyncFuture<Object> target2 = CompletableFutures.fromCompletionStage(async, source2);
+
+        source2.cancel(false);
+        assertTrue(target2.isCancelled());
+    }
+
+    @Test
+    public void testFromCompletedStage() throws Exception {
+        assertSame(result,
+                CompletableFutures.fromCompletionStage(async, CompletableFuture.completedFuture(result)).getNow());
+
+        final CompletableFuture<Object> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        assertSame(e, CompletableFutures.fromCompletionStage(async, failed).cause());
+
+        final CompletableFuture<Object> cancelled = new CompletableFuture<>();
+        cancelled.cancel(false);
+        assertTrue(CompletableFutures.fromCompletionStage(async, cancelled).isCancelled());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final ResolvableFuture<Object> source = async.future();
+
+        assertSame(source,
+                CompletableFutures.fromCompletionStage(async, CompletableFutures.toCompletableFuture(source)));
+        assertEquals(false, source.isDone());
+    }
+}
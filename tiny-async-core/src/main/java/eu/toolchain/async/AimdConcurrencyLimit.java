@@ -0,0 +1,140 @@
+package eu.toolchain.async;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A concurrency limit using additive increase, multiplicative decrease (AIMD).
+ *
+ * <p>
+ * Every time as many futures as the current limit have completed within the latency threshold, the limit is increased
+ * by one. When a future is dropped (failed or cancelled), or completes slower than the threshold, the limit is
+ * multiplied by the backoff ratio.
+ * </p>
+ *
+ * <p>
+ * Only futures that were started after the last decrease can cause another decrease. Futures which were already
+ * pending when the limit was decreased were started under the old limit, and would otherwise cause a burst of slow
+ * samples to collapse the limit to its minimum.
+ * </p>
+ */
+public class AimdConcurrencyLimit implements ConcurrencyLimit {
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    private static final AtomicIntegerFieldUpdater<AimdConcurrencyLimit> LIMIT = AtomicIntegerFieldUpdater.newUpdater(
+            AimdConcurrencyLimit.class, "limit");
+
+    private static final AtomicIntegerFieldUpdater<AimdConcurrencyLimit> SUCCESSES = AtomicIntegerFieldUpdater
+            .newUpdater(AimdConcurrencyLimit.class, "successes");
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private volatile int limit;
+    private volatile int successes = 0;
+    private volatile long lastDecrease;
+
+    /**
+     * Setup a limit with a minimum of one, and the default backoff ratio.
+     *
+     * @param initialLimit The limit to start with.
+     * @param maxLimit The maximum limit.
+     * @param latencyThreshold Futures completing slower than this are treated as a sign of overload.
+     * @param unit Unit of the latency threshold.
+     */
+    public AimdConcurrencyLimit(final int initialLimit, final int maxLimit, final long latencyThreshold,
+            final TimeUnit unit) {
+        this(initialLimit, 1, maxLimit, latencyThreshold, unit, DEFAULT_BACKOFF_RATIO);
+    }
+
+    /**
+     * Setup a limit.
+     *
+     * @param initialLimit The limit to start with.
+     * @param minLimit The minimum limit.
+     * @param maxLimit The maximum limit.
+     * @param latencyThreshold Futures completing slower than this are treated as a sign of overload.
+     * @param unit Unit of the latency threshold.
+     * @param backoffRatio Ratio to multiply the limit with on overload, must be in the range (0, 1).
+     */
+    public AimdConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit,
+            final long latencyThreshold, final TimeUnit unit, final double backoffRatio) {
+        if (unit == null)
+            throw new NullPointerException("unit");
+
+        if (minLimit <= 0)
+            throw new IllegalArgumentException("minLimit must be positive");
+
+        if (maxLimit < minLimit)
+            throw new IllegalArgumentException("maxLimit must be greater than or equal to minLimit");
+
+        if (initialLimit < minLimit || initialLimit > maxLimit)
+            throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+
+        if (latencyThreshold <= 0)
+            throw new IllegalArgumentException("latencyThreshold must be positive");
+
+        if (!(backoffRatio > 0 && backoffRatio < 1))
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = unit.toNanos(latencyThreshold);
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+        this.lastDecrease = System.nanoTime();
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void sample(final long startNanos, final long latencyNanos, final boolean dropped) {
+        if (dropped || latencyNanos > latencyThresholdNanos) {
+            decrease(startNanos);
+            return;
+        }
+
+        increase();
+    }
+
+    private void increase() {
+        final int current = limit;
+
+        if (SUCCESSES.incrementAndGet(this) < current)
+            return;
+
+        SUCCESSES.set(this, 0);
+
+        if (current < maxLimit)
+            LIMIT.compareAndSet(this, current, current + 1);
+    }
+
+    private void decrease(final long startNanos) {
+        if (startNanos - lastDecrease < 0)
+            return;
+
+        while (true) {
+            final int current = limit;
+            final int next = Math.max(minLimit, (int) (current * backoffRatio));
+
+            if (next == current)
+                return;
+
+            if (LIMIT.compareAndSet(this, current, next))
+                break;
+        }
+
+        lastDecrease = System.nanoTime();
+        SUCCESSES.set(this, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "AimdConcurrencyLimit(limit=" + limit + ", min=" + minLimit + ", max=" + maxLimit + ")";
+    }
+}
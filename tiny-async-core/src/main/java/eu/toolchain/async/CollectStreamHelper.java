@@ -2,6 +2,7 @@ package eu.toolchain.async;
 
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Implementation of {@link AsyncFramework#collect(Collection, StreamCollector)}.
@@ -12,13 +13,33 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @param <T> The type the source type is being collected and transformed into.
  */
 public class CollectStreamHelper<S, T> implements FutureDone<S> {
+    private static final long REMAINING_MASK = 0xffffffffL;
+    private static final long FAILED_SHIFT = 32;
+
+    private static final long RESOLVED_DELTA = -1L;
+    private static final long FAILED_DELTA = (1L << FAILED_SHIFT) - 1L;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<CollectStreamHelper> STATE = AtomicLongFieldUpdater.newUpdater(
+            CollectStreamHelper.class, "state");
+
     private final AsyncCaller caller;
     private final StreamCollector<S, T> collector;
     private final ResolvableFuture<? super T> target;
-    private final AtomicInteger countdown;
+    private final int size;
 
-    private final AtomicInteger successful = new AtomicInteger();
-    private final AtomicInteger failed = new AtomicInteger();
+    /**
+     * The number of remaining futures in the lower 32 bits, and the number of failed futures in the upper 32 bits.
+     *
+     * Every completion is a single atomic add to this field, the number of successful futures is derived from the
+     * other counts when all futures have completed.
+     */
+    private volatile long state;
+
+    /**
+     * Cancellations are expected to be rare, and are counted separately. Every cancellation is counted before updating
+     * {@link #state}, which publishes it to the thread completing the collection.
+     */
     private final AtomicInteger cancelled = new AtomicInteger();
 
     public CollectStreamHelper(final AsyncCaller caller, final int size, final StreamCollector<S, T> collector,
@@ -29,40 +50,42 @@ public class CollectStreamHelper<S, T> implements FutureDone<S> {
         this.caller = caller;
         this.collector = collector;
         this.target = target;
-        this.countdown = new AtomicInteger(size);
+        this.size = size;
+        this.state = size;
     }
 
     @Override
     public void failed(Throwable e) throws Exception {
-        failed.incrementAndGet();
         caller.fail(collector, e);
-        check();
+        check(FAILED_DELTA);
     }
 
     @Override
     public void resolved(S result) throws Exception {
-        successful.incrementAndGet();
         caller.resolve(collector, result);
-        check();
+        check(RESOLVED_DELTA);
     }
 
     @Override
     public void cancelled() throws Exception {
         cancelled.incrementAndGet();
         caller.cancel(collector);
-        check();
+        check(RESOLVED_DELTA);
     }
 
-    private void check() throws Exception {
-        if (countdown.decrementAndGet() == 0)
-            done();
+    private void check(final long delta) throws Exception {
+        final long s = STATE.addAndGet(this, delta);
+
+        if ((s & REMAINING_MASK) == 0)
+            done((int) (s >>> FAILED_SHIFT));
     }
 
-    private void done() {
+    private void done(final int failed) {
+        final int cancelled = this.cancelled.get();
         final T result;
 
         try {
-            result = collector.end(successful.get(), failed.get(), cancelled.get());
+            result = collector.end(size - failed - cancelled, failed, cancelled);
         } catch (Exception e) {
             target.fail(e);
             return;
@@ -70,4 +93,4 @@ public class CollectStreamHelper<S, T> implements FutureDone<S> {
 
         target.resolve(result);
     }
-}
\ No newline at end of file
+}
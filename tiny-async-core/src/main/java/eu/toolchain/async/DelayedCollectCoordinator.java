@@ -3,119 +3,243 @@ package eu.toolchain.async;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
- * Coordinator thread for handling delayed callables executing with a given parallelism.
- * 
+ * Coordinator for handling delayed callables executing with a given parallelism.
+ *
+ * <p>
+ * No thread is dedicated to the coordination. The first batch of callables is started by {@link #run()}, and every
+ * completion starts the next callable from the thread that completed it, keeping at most {@code parallelism} futures in
+ * flight.
+ * </p>
+ *
+ * <p>
+ * Starting callables is serialized through {@link #pump()}, only one thread at a time advances the iterator. A thread
+ * that finds the pump busy leaves a note in {@link #wip} and returns immediately, the thread currently pumping goes
+ * another round on its behalf.
+ * </p>
+ *
+ * <p>
+ * When configured with a {@link ConcurrencyLimit}, the limit is read every time a callable is about to be started, and
+ * every completed future is timed and reported to it.
+ * </p>
+ *
  * @param <S> The source type being collected.
  * @param <T> The target type the source type is being collected into.
  */
 public class DelayedCollectCoordinator<S, T> implements FutureDone<S>, Runnable {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<DelayedCollectCoordinator> WIP = AtomicIntegerFieldUpdater
+            .newUpdater(DelayedCollectCoordinator.class, "wip");
+
     private final AtomicInteger failed = new AtomicInteger();
     private final AtomicInteger cancelled = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
 
     private final AsyncCaller caller;
-    private final Collection<? extends Callable<? extends AsyncFuture<? extends S>>> callables;
+    private final Iterator<? extends Callable<? extends AsyncFuture<? extends S>>> iterator;
     private final StreamCollector<? super S, ? extends T> collector;
-    private final Semaphore mutex;
     private final ResolvableFuture<? super T> future;
-    private final int totalPermitsToAcquire;
+    private final int parallelism;
+    private final ConcurrencyLimit limit;
+    private final boolean cancelRemaining;
+
+    private volatile boolean cancel = false;
+    private volatile int wip = 0;
 
-    final AtomicBoolean cancel = new AtomicBoolean();
+    /* only accessed from within the pump */
+    private boolean exhausted = false;
+    private boolean ended = false;
+    private int total = 0;
 
+    /**
+     * Setup a coordinator for a collection of callables.
+     *
+     * Callables which have not been started when the collection is cancelled, or fails, are reported as cancelled to
+     * the collector.
+     */
     public DelayedCollectCoordinator(final AsyncCaller caller,
             final Collection<? extends Callable<? extends AsyncFuture<? extends S>>> callables,
-            final StreamCollector<S, T> collector, final Semaphore mutex, final ResolvableFuture<? super T> future,
-            int parallelism) {
+            final StreamCollector<S, T> collector, final ResolvableFuture<? super T> future, int parallelism) {
+        this(caller, callables.iterator(), collector, future, parallelism, null, true);
+    }
+
+    /**
+     * Setup a coordinator for a collection of callables, with a limit that might change at runtime.
+     *
+     * @see #DelayedCollectCoordinator(AsyncCaller, Collection, StreamCollector, ResolvableFuture, int)
+     */
+    public DelayedCollectCoordinator(final AsyncCaller caller,
+            final Collection<? extends Callable<? extends AsyncFuture<? extends S>>> callables,
+            final StreamCollector<S, T> collector, final ResolvableFuture<? super T> future,
+            final ConcurrencyLimit limit) {
+        this(caller, callables.iterator(), collector, future, 1, nonNull(limit), true);
+    }
+
+    /**
+     * Setup a coordinator for a lazy, potentially unbounded, source of callables.
+     *
+     * The iterator is only advanced when a new callable can be started, and is never advanced by more than one thread
+     * at a time. When the collection is cancelled, or fails, the rest of the iterator is left untouched.
+     */
+    public DelayedCollectCoordinator(final AsyncCaller caller,
+            final Iterator<? extends Callable<? extends AsyncFuture<? extends S>>> callables,
+            final StreamCollector<S, T> collector, final ResolvableFuture<? super T> future, int parallelism) {
+        this(caller, callables, collector, future, parallelism, null, false);
+    }
+
+    /**
+     * Setup a coordinator for a lazy, potentially unbounded, source of callables, with a limit that might change at
+     * runtime.
+     *
+     * @see #DelayedCollectCoordinator(AsyncCaller, Iterator, StreamCollector, ResolvableFuture, int)
+     */
+    public DelayedCollectCoordinator(final AsyncCaller caller,
+            final Iterator<? extends Callable<? extends AsyncFuture<? extends S>>> callables,
+            final StreamCollector<S, T> collector, final ResolvableFuture<? super T> future,
+            final ConcurrencyLimit limit) {
+        this(caller, callables, collector, future, 1, nonNull(limit), false);
+    }
+
+    private DelayedCollectCoordinator(final AsyncCaller caller,
+            final Iterator<? extends Callable<? extends AsyncFuture<? extends S>>> iterator,
+            final StreamCollector<S, T> collector, final ResolvableFuture<? super T> future, int parallelism,
+            ConcurrencyLimit limit, boolean cancelRemaining) {
+        if (parallelism <= 0)
+            throw new IllegalArgumentException("parallelism must be positive");
+
         this.caller = caller;
-        this.callables = callables;
+        this.iterator = iterator;
         this.collector = collector;
-        this.mutex = mutex;
         this.future = future;
-        this.totalPermitsToAcquire = (callables.size() + parallelism);
+        this.parallelism = parallelism;
+        this.limit = limit;
+        this.cancelRemaining = cancelRemaining;
     }
 
     @Override
     public void failed(Throwable cause) {
         caller.fail(collector, cause);
         failed.incrementAndGet();
-        cancel.set(true);
-        mutex.release();
+        cancel = true;
+        complete();
     }
 
     @Override
     public void resolved(S result) {
         caller.resolve(collector, result);
-        mutex.release();
+        complete();
     }
 
     @Override
     public void cancelled() {
         caller.cancel(collector);
         cancelled.incrementAndGet();
-        cancel.set(true);
-        mutex.release();
+        cancel = true;
+        complete();
     }
 
-    // coordinate thread.
+    /**
+     * Start the first batch of callables, this returns as soon as they have been started.
+     */
     @Override
     public void run() {
         future.on(new FutureCancelled() {
             @Override
             public void cancelled() throws Exception {
-                cancel.set(true);
-                mutex.release();
+                cancel = true;
+                pump();
             }
         });
 
-        final int total = callables.size();
-        final Iterator<? extends Callable<? extends AsyncFuture<? extends S>>> iterator = callables.iterator();
+        pump();
+    }
 
-        int acquired = 0;
+    private void complete() {
+        inFlight.decrementAndGet();
+        pump();
+    }
 
-        while (iterator.hasNext() && !cancel.get()) {
-            try {
-                mutex.acquire();
-            } catch (Exception e) {
-                future.fail(e);
-                return;
+    private void pump() {
+        if (WIP.getAndIncrement(this) != 0)
+            return;
+
+        int missed = 1;
+
+        while (true) {
+            if (!exhausted)
+                startNext();
+
+            if (exhausted && !ended && inFlight.get() == 0) {
+                ended = true;
+                end();
             }
 
-            ++acquired;
+            missed = WIP.addAndGet(this, -missed);
 
+            if (missed == 0)
+                return;
+        }
+    }
+
+    private void startNext() {
+        while (!cancel && inFlight.get() < currentLimit() && iterator.hasNext()) {
             final Callable<? extends AsyncFuture<? extends S>> callable = iterator.next();
 
+            inFlight.incrementAndGet();
+            total++;
+
             final AsyncFuture<? extends S> f;
 
             try {
                 f = callable.call();
             } catch (final Exception e) {
                 failed(e);
-                break;
+                continue;
             }
 
-            f.on(this);
+            if (limit == null) {
+                f.on(this);
+                continue;
+            }
+
+            f.on(new Timed(System.nanoTime()));
         }
 
-        // cleanup, cancel all future callbacks.
+        if (!cancel && iterator.hasNext())
+            return;
+
+        exhausted = true;
+
+        if (!cancelRemaining)
+            return;
+
+        // cleanup, cancel all callables which were never started.
         while (iterator.hasNext()) {
             iterator.next();
-            cancelled();
+            caller.cancel(collector);
+            cancelled.incrementAndGet();
+            total++;
         }
+    }
 
-        // wait for the rest of the pending futures...
-        while (acquired++ < totalPermitsToAcquire) {
-            try {
-                mutex.acquire();
-            } catch (Exception e) {
-                future.fail(e);
-                return;
-            }
-        }
+    private int currentLimit() {
+        if (limit == null)
+            return parallelism;
+
+        return Math.max(1, limit.limit());
+    }
 
+    private static ConcurrencyLimit nonNull(final ConcurrencyLimit limit) {
+        if (limit == null)
+            throw new NullPointerException("limit");
+
+        return limit;
+    }
+
+    private void end() {
         final int f = failed.get();
         final int c = cancelled.get();
         final int r = total - f - c;
@@ -131,4 +255,34 @@ public class DelayedCollectCoordinator<S, T> implements FutureDone<S>, Runnable
 
         future.resolve(value);
     }
-}
\ No newline at end of file
+
+    /**
+     * Reports the latency of a single future to the limit before handing it over to the coordinator.
+     */
+    private final class Timed implements FutureDone<S> {
+        private final long start;
+
+        private Timed(final long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void failed(Throwable cause) {
+            limit.sample(start, System.nanoTime() - start, true);
+            DelayedCollectCoordinator.this.failed(cause);
+        }
+
+        @Override
+        public void resolved(S result) {
+            limit.sample(start, System.nanoTime() - start, false);
+            DelayedCollectCoordinator.this.resolved(result);
+        }
+
+        @Override
+        public void cancelled() {
+            // typically a timeout giving up on the future, which is as much a sign of overload as a failure.
+            limit.sample(start, System.nanoTime() - start, true);
+            DelayedCollectCoordinator.this.cancelled();
+        }
+    }
+}
@@ -2,7 +2,6 @@ package eu.toolchain.async;
 
 import java.util.concurrent.ExecutorService;
 
-import lombok.RequiredArgsConstructor;
 import eu.toolchain.async.AsyncCaller;
 import eu.toolchain.async.FutureCancelled;
 import eu.toolchain.async.FutureDone;
@@ -11,10 +10,29 @@ import eu.toolchain.async.FutureFinished;
 import eu.toolchain.async.FutureResolved;
 import eu.toolchain.async.StreamCollector;
 
-@RequiredArgsConstructor
 public final class ExecutorAsyncCaller implements AsyncCaller {
     private final ExecutorService executor;
     private final AsyncCaller caller;
+    private final int batchSize;
+
+    public ExecutorAsyncCaller(final ExecutorService executor, final AsyncCaller caller) {
+        this(executor, caller, 1);
+    }
+
+    /**
+     * @param executor Executor to submit invocations to.
+     * @param caller Caller to invoke handles through from the executor.
+     * @param batchSize The maximum number of callbacks of a single completion to invoke from the same executor task,
+     *            see {@link #batchSize()}.
+     */
+    public ExecutorAsyncCaller(final ExecutorService executor, final AsyncCaller caller, final int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be positive");
+
+        this.executor = executor;
+        this.caller = caller;
+        this.batchSize = batchSize;
+    }
 
     @Override
     public <T> void resolve(final FutureDone<T> handle, final T result) {
@@ -130,4 +148,37 @@ public final class ExecutorAsyncCaller implements AsyncCaller {
     public boolean isThreaded() {
         return true;
     }
+
+    /**
+     * The executor that invocations are submitted to.
+     *
+     * Futures that already hold a {@link Runnable} for a handle (see {@code ConcurrentResolvableFuture}) can submit it
+     * to this executor directly, and invoke {@link #caller()} from it, instead of having this caller allocate one.
+     *
+     * @return The executor that invocations are submitted to.
+     */
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    /**
+     * The caller that handles are invoked through from the executor.
+     *
+     * @return The caller that handles are invoked through from the executor.
+     */
+    public AsyncCaller caller() {
+        return caller;
+    }
+
+    /**
+     * The maximum number of callbacks of a single completion that should be invoked from the same executor task.
+     *
+     * A value of {@code 1} submits every callback as a separate task. Larger values trade parallelism between the
+     * callbacks for fewer tasks being put on the executor queue.
+     *
+     * @return The maximum number of callbacks to invoke from the same executor task.
+     */
+    public int batchSize() {
+        return batchSize;
+    }
 }
\ No newline at end of file
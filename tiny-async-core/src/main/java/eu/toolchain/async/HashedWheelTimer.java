@@ -0,0 +1,376 @@
+package eu.toolchain.async;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A timer that schedules tasks in a fixed-size wheel of buckets, advanced by a single worker thread at a fixed tick
+ * duration.
+ *
+ * <p>
+ * Scheduling and cancelling a task are both constant time operations that never block, which makes the timer suitable
+ * for a very large number of timeouts where most of them are expected to be cancelled (like request timeouts). The
+ * trade-off is precision, a task expires on the first tick after its deadline.
+ * </p>
+ *
+ * <p>
+ * Expired tasks are run on the worker thread, they are expected to be short and to not block.
+ * </p>
+ *
+ * <p>
+ * The worker thread is started when the first task is scheduled.
+ * </p>
+ */
+public class HashedWheelTimer {
+    public static final long DEFAULT_TICK_DURATION = 10;
+    public static final TimeUnit DEFAULT_TICK_UNIT = TimeUnit.MILLISECONDS;
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private static final int WORKER_INIT = 0;
+    private static final int WORKER_STARTED = 1;
+    private static final int WORKER_STOPPED = 2;
+
+    private static final AtomicIntegerFieldUpdater<HashedWheelTimer> WORKER_STATE = AtomicIntegerFieldUpdater
+            .newUpdater(HashedWheelTimer.class, "workerState");
+
+    private static final AtomicReferenceFieldUpdater<HashedWheelTimer, Timeout> PENDING = AtomicReferenceFieldUpdater
+            .newUpdater(HashedWheelTimer.class, Timeout.class, "pending");
+
+    private final Thread worker;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private volatile int workerState = WORKER_INIT;
+
+    /**
+     * Timeouts which have been scheduled, but not yet placed in the wheel, linked through {@link Timeout#nextPending}.
+     */
+    private volatile Timeout pending = null;
+
+    /**
+     * The time at which the worker started, all deadlines are relative to this.
+     */
+    private volatile long startTime = 0;
+
+    /**
+     * Setup a timer with a default tick duration of 10 milliseconds and 512 buckets, using a daemon thread.
+     */
+    public HashedWheelTimer() {
+        this(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "tiny-async-timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, DEFAULT_TICK_DURATION, DEFAULT_TICK_UNIT, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Setup a timer.
+     *
+     * @param threadFactory Factory to create the worker thread with.
+     * @param tickDuration Duration between each tick.
+     * @param unit Unit of the tick duration.
+     * @param ticksPerWheel Number of buckets in the wheel, rounded up to the next power of two.
+     */
+    public HashedWheelTimer(final ThreadFactory threadFactory, final long tickDuration, final TimeUnit unit,
+            final int ticksPerWheel) {
+        if (threadFactory == null)
+            throw new NullPointerException("threadFactory");
+
+        if (unit == null)
+            throw new NullPointerException("unit");
+
+        if (tickDuration <= 0)
+            throw new IllegalArgumentException("tickDuration must be positive");
+
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30))
+            throw new IllegalArgumentException("ticksPerWheel must be positive and at most 2^30");
+
+        int size = 1;
+
+        while (size < ticksPerWheel)
+            size <<= 1;
+
+        this.wheel = new Bucket[size];
+
+        for (int i = 0; i < size; i++)
+            this.wheel[i] = new Bucket();
+
+        this.mask = size - 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.worker = threadFactory.newThread(new Worker());
+    }
+
+    /**
+     * Schedule the given task to run after the given delay.
+     *
+     * @param task Task to run when the timeout expires.
+     * @param delay Delay after which the task should run.
+     * @param unit Unit of the delay.
+     * @return A handle to the scheduled task, which can be used to cancel it.
+     * @throws IllegalStateException if the timer has been stopped.
+     */
+    public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        if (task == null)
+            throw new NullPointerException("task");
+
+        if (unit == null)
+            throw new NullPointerException("unit");
+
+        start();
+
+        long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+
+        // guard against overflow.
+        if (delay > 0 && deadline < 0)
+            deadline = Long.MAX_VALUE;
+
+        final Timeout timeout = new Timeout(task, deadline);
+
+        Timeout head;
+
+        do {
+            head = pending;
+            timeout.nextPending = head;
+        } while (!PENDING.compareAndSet(this, head, timeout));
+
+        return timeout;
+    }
+
+    /**
+     * Stop the timer, no scheduled tasks will be run after this.
+     */
+    public void stop() {
+        if (WORKER_STATE.getAndSet(this, WORKER_STOPPED) == WORKER_STARTED)
+            worker.interrupt();
+    }
+
+    private void start() {
+        switch (workerState) {
+        case WORKER_INIT:
+            if (WORKER_STATE.compareAndSet(this, WORKER_INIT, WORKER_STARTED))
+                worker.start();
+            break;
+        case WORKER_STARTED:
+            break;
+        default:
+            throw new IllegalStateException("timer has been stopped");
+        }
+
+        boolean interrupted = false;
+
+        while (startTime == 0) {
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private final class Worker implements Runnable {
+        private long tick = 0;
+
+        @Override
+        public void run() {
+            final long now = System.nanoTime();
+            // zero is used to signal that the timer is not started.
+            startTime = now == 0 ? 1 : now;
+            started.countDown();
+
+            while (workerState == WORKER_STARTED) {
+                if (!waitForNextTick())
+                    break;
+
+                transferPending();
+                expire(wheel[(int) (tick & mask)]);
+                tick++;
+            }
+        }
+
+        /**
+         * Sleep until the next tick.
+         *
+         * @return {@code true} if the next tick has been reached, {@code false} if the timer was stopped.
+         */
+        private boolean waitForNextTick() {
+            final long target = tickNanos * (tick + 1);
+
+            while (true) {
+                final long current = System.nanoTime() - startTime;
+                final long sleepNanos = target - current;
+
+                if (sleepNanos <= 0)
+                    return true;
+
+                try {
+                    Thread.sleep(TimeUnit.NANOSECONDS.toMillis(sleepNanos + 999999));
+                } catch (InterruptedException e) {
+                    if (workerState == WORKER_STOPPED)
+                        return false;
+                }
+            }
+        }
+
+        /**
+         * Place all pending timeouts in their bucket.
+         */
+        private void transferPending() {
+            Timeout t = PENDING.getAndSet(HashedWheelTimer.this, null);
+
+            while (t != null) {
+                final Timeout next = t.nextPending;
+                t.nextPending = null;
+
+                if (t.state == Timeout.ST_INIT) {
+                    final long calculated = t.deadline / tickNanos;
+                    t.remainingRounds = (calculated - tick) / wheel.length;
+                    // deadlines that have already passed are placed in the current bucket.
+                    wheel[(int) (Math.max(calculated, tick) & mask)].add(t);
+                }
+
+                t = next;
+            }
+        }
+
+        private void expire(final Bucket bucket) {
+            Timeout t = bucket.head;
+
+            while (t != null) {
+                final Timeout next = t.next;
+
+                if (t.state != Timeout.ST_INIT) {
+                    bucket.remove(t);
+                } else if (t.remainingRounds <= 0) {
+                    bucket.remove(t);
+                    t.expire();
+                } else {
+                    t.remainingRounds--;
+                }
+
+                t = next;
+            }
+        }
+    }
+
+    /**
+     * A doubly linked list of timeouts, only accessed by the worker thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(final Timeout t) {
+            if (head == null) {
+                head = tail = t;
+                return;
+            }
+
+            tail.next = t;
+            t.prev = tail;
+            tail = t;
+        }
+
+        private void remove(final Timeout t) {
+            if (t.prev != null) {
+                t.prev.next = t.next;
+            } else {
+                head = t.next;
+            }
+
+            if (t.next != null) {
+                t.next.prev = t.prev;
+            } else {
+                tail = t.prev;
+            }
+
+            t.prev = null;
+            t.next = null;
+        }
+    }
+
+    /**
+     * A handle to a scheduled task.
+     */
+    public static final class Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater.newUpdater(
+                Timeout.class, "state");
+
+        private final long deadline;
+
+        private volatile Runnable task;
+        private volatile int state = ST_INIT;
+
+        /* only accessed by the worker thread */
+        private long remainingRounds;
+        private Timeout prev;
+        private Timeout next;
+
+        /* only modified before being published to the pending stack, or by the worker thread */
+        private Timeout nextPending;
+
+        private Timeout(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task.
+         *
+         * The timeout is removed from the wheel by the worker thread when it next visits its bucket.
+         *
+         * @return {@code true} if the task was cancelled because of this call, {@code false} if it had already expired
+         *         or been cancelled.
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, ST_INIT, ST_CANCELLED))
+                return false;
+
+            task = null;
+            return true;
+        }
+
+        /**
+         * @return {@code true} if the task has been cancelled.
+         */
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        /**
+         * @return {@code true} if the task has been run, or is currently running.
+         */
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE.compareAndSet(this, ST_INIT, ST_EXPIRED))
+                return;
+
+            final Runnable task = this.task;
+            this.task = null;
+
+            try {
+                task.run();
+            } catch (final Throwable e) {
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+}
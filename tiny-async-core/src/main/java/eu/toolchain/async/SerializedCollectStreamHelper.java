@@ -0,0 +1,163 @@
+package eu.toolchain.async;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Implementation of {@link AsyncFramework#collectSerialized(Collection, StreamCollector)}.
+ *
+ * <p>
+ * Every completion is pushed onto a lock-free multi-producer, single-consumer queue, after which the completing thread
+ * attempts to become the drainer of the queue. Only one thread at a time drains the queue and invokes the collector,
+ * any other thread returns as soon as its completion has been queued up. The drainer keeps going until the queue is
+ * empty, so under contention a single thread ends up invoking the collector on behalf of all the others.
+ * </p>
+ *
+ * <p>
+ * The hand-off between two drainers happens through {@link #wip}, which makes all changes done by one drainer visible
+ * to the next. The collector, and all counters in this class can therefore be accessed without synchronization.
+ * </p>
+ *
+ * @param <S> the source type being collected.
+ * @param <T> The type the source type is being collected and transformed into.
+ */
+public class SerializedCollectStreamHelper<S, T> implements FutureDone<S> {
+    private static final int RESOLVED = 0;
+    private static final int FAILED = 1;
+    private static final int CANCELLED = 2;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<SerializedCollectStreamHelper> WIP = AtomicIntegerFieldUpdater
+            .newUpdater(SerializedCollectStreamHelper.class, "wip");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<SerializedCollectStreamHelper, Node> TAIL = AtomicReferenceFieldUpdater
+            .newUpdater(SerializedCollectStreamHelper.class, Node.class, "tail");
+
+    private final AsyncCaller caller;
+    private final StreamCollector<S, T> collector;
+    private final ResolvableFuture<? super T> target;
+    private final int size;
+
+    /**
+     * The number of threads that have queued up a completion, but not yet seen it drained.
+     */
+    private volatile int wip = 0;
+
+    /**
+     * The most recently queued node, producers swap themselves in here.
+     */
+    private volatile Node tail;
+
+    /* only accessed by the current drainer */
+    private Node head;
+    private int resolved = 0;
+    private int failed = 0;
+    private int cancelled = 0;
+
+    public SerializedCollectStreamHelper(final AsyncCaller caller, final int size,
+            final StreamCollector<S, T> collector, final ResolvableFuture<? super T> target) {
+        if (size <= 0)
+            throw new IllegalArgumentException("size");
+
+        this.caller = caller;
+        this.collector = collector;
+        this.target = target;
+        this.size = size;
+
+        final Node stub = new Node(RESOLVED, null);
+        this.head = stub;
+        this.tail = stub;
+    }
+
+    @Override
+    public void failed(Throwable e) throws Exception {
+        offer(new Node(FAILED, e));
+    }
+
+    @Override
+    public void resolved(S result) throws Exception {
+        offer(new Node(RESOLVED, result));
+    }
+
+    @Override
+    public void cancelled() throws Exception {
+        offer(new Node(CANCELLED, null));
+    }
+
+    private void offer(final Node node) {
+        final Node previous = TAIL.getAndSet(this, node);
+        // the node is linked before incrementing wip, so the drainer is guaranteed to see it before it gives up.
+        Node.NEXT.lazySet(previous, node);
+
+        if (WIP.getAndIncrement(this) != 0)
+            return;
+
+        int missed = 1;
+
+        while (true) {
+            Node next;
+
+            while ((next = head.next) != null) {
+                head = next;
+                final Object value = next.value;
+                next.value = null;
+                dispatch(next.type, value);
+            }
+
+            missed = WIP.addAndGet(this, -missed);
+
+            if (missed == 0)
+                return;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(final int type, final Object value) {
+        switch (type) {
+        case RESOLVED:
+            resolved++;
+            caller.resolve(collector, (S) value);
+            break;
+        case FAILED:
+            failed++;
+            caller.fail(collector, (Throwable) value);
+            break;
+        default:
+            cancelled++;
+            caller.cancel(collector);
+            break;
+        }
+
+        if (resolved + failed + cancelled == size)
+            done();
+    }
+
+    private void done() {
+        final T result;
+
+        try {
+            result = collector.end(resolved, failed, cancelled);
+        } catch (Exception e) {
+            target.fail(e);
+            return;
+        }
+
+        target.resolve(result);
+    }
+
+    private static final class Node {
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT = AtomicReferenceFieldUpdater.newUpdater(
+                Node.class, Node.class, "next");
+
+        private final int type;
+        private Object value;
+        private volatile Node next;
+
+        private Node(final int type, final Object value) {
+            this.type = type;
+            this.value = value;
+        }
+    }
+}
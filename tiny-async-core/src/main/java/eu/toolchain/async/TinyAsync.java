@@ -3,14 +3,16 @@ package eu.toolchain.async;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import eu.toolchain.async.concurrent.ConcurrentManaged;
+import eu.toolchain.async.concurrent.ConcurrentManagedPool;
 import eu.toolchain.async.concurrent.ConcurrentResolvableFuture;
+import eu.toolchain.async.helper.CallHelper;
 import eu.toolchain.async.helper.CancelledLazyTransformHelper;
 import eu.toolchain.async.helper.CancelledTransformHelper;
 import eu.toolchain.async.helper.CollectAndDiscardHelper;
@@ -19,6 +21,7 @@ import eu.toolchain.async.helper.FailedLazyTransformHelper;
 import eu.toolchain.async.helper.FailedTransformHelper;
 import eu.toolchain.async.helper.ResolvedLazyTransformHelper;
 import eu.toolchain.async.helper.ResolvedTransformHelper;
+import eu.toolchain.async.helper.TimeoutHelper;
 import eu.toolchain.async.immediate.ImmediateCancelledAsyncFuture;
 import eu.toolchain.async.immediate.ImmediateFailedAsyncFuture;
 import eu.toolchain.async.immediate.ImmediateResolvedAsyncFuture;
@@ -64,13 +67,38 @@ public class TinyAsync implements AsyncFramework {
      */
     private final AsyncCaller caller;
 
+    /**
+     * Timer used for timeouts.
+     */
+    private final HashedWheelTimer timer;
+
+    /**
+     * If threads running a callable should be interrupted when the future of the call is cancelled.
+     */
+    private final boolean interruptOnCancel;
+
     protected TinyAsync(ExecutorService defaultExecutor, AsyncCaller caller, AsyncCaller threadedCaller) {
+        this(defaultExecutor, caller, threadedCaller, defaultTimer());
+    }
+
+    protected TinyAsync(ExecutorService defaultExecutor, AsyncCaller caller, AsyncCaller threadedCaller,
+            HashedWheelTimer timer) {
+        this(defaultExecutor, caller, threadedCaller, timer, false);
+    }
+
+    protected TinyAsync(ExecutorService defaultExecutor, AsyncCaller caller, AsyncCaller threadedCaller,
+            HashedWheelTimer timer, boolean interruptOnCancel) {
         if (caller == null)
             throw new NullPointerException("caller");
 
+        if (timer == null)
+            throw new NullPointerException("timer");
+
         this.defaultExecutor = defaultExecutor;
         this.caller = caller;
         this.threadedCaller = threadedCaller;
+        this.timer = timer;
+        this.interruptOnCancel = interruptOnCancel;
     }
 
     /**
@@ -142,6 +170,24 @@ public class TinyAsync implements AsyncFramework {
         return target.bind(future);
     }
 
+    @Override
+    public <T> AsyncPipeline<T> pipeline(final AsyncFuture<T> future) {
+        return new TinyAsyncPipeline<T>(this, future);
+    }
+
+    @Override
+    public <T> AsyncFuture<T> timeout(final AsyncFuture<T> future, final long duration, final TimeUnit unit) {
+        if (unit == null)
+            throw new NullPointerException("unit");
+
+        if (future.isDone())
+            return future;
+
+        final ResolvableFuture<T> target = future();
+        new TimeoutHelper<T>(future, target, defaultExecutor, duration, unit).schedule(timer);
+        return target.bind(future);
+    }
+
     @Override
     public <C> AsyncFuture<C> call(final Callable<? extends C> callable) {
         return call(callable, defaultExecutor(), this.<C> future());
@@ -155,43 +201,16 @@ public class TinyAsync implements AsyncFramework {
     @Override
     public <C> AsyncFuture<C> call(final Callable<? extends C> callable, final ExecutorService executor,
             final ResolvableFuture<C> future) {
-        final Runnable runnable = new Runnable() {
-            @Override
-            public void run() {
-                // future is already done, do not perform potentially expensive operation.
-                if (future.isDone())
-                    return;
-
-                final C result;
-
-                try {
-                    result = callable.call();
-                } catch (final Exception error) {
-                    future.fail(error);
-                    return;
-                }
-
-                future.resolve(result);
-            }
-        };
-
-        final Future<?> task;
+        final CallHelper<C> helper = new CallHelper<C>(callable, future, interruptOnCancel);
 
         try {
-            task = executor.submit(runnable);
+            executor.execute(helper);
         } catch (final Exception e) {
             future.fail(e);
             return future;
         }
 
-        future.on(new FutureCancelled() {
-            @Override
-            public void cancelled() throws Exception {
-                // cancel, but do not interrupt.
-                task.cancel(false);
-            }
-        });
-
+        future.on(helper);
         return future;
     }
 
@@ -251,6 +270,71 @@ public class TinyAsync implements AsyncFramework {
         return target;
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> AsyncFuture<List<T>> collectOrdered(final Collection<? extends AsyncFuture<? extends T>> futures) {
+        if (futures.isEmpty())
+            return resolved((List<T>) EMPTY_RESULTS);
+
+        return collectOrdered(futures, this.<T> list());
+    }
+
+    @Override
+    public <C, T> AsyncFuture<T> collectOrdered(final Collection<? extends AsyncFuture<? extends C>> futures,
+            final Collector<? super C, ? extends T> collector) {
+        if (futures.isEmpty())
+            return doCollectEmpty(collector);
+
+        return doCollectOrdered(futures, collector);
+    }
+
+    protected <C, T> AsyncFuture<T> doCollectOrdered(final Collection<? extends AsyncFuture<? extends C>> futures,
+            final Collector<? super C, ? extends T> collector) {
+        final ResolvableFuture<T> target = future();
+
+        final CollectHelper<? super C, ? extends T> done = new CollectHelper<>(futures.size(), collector, target);
+
+        int index = 0;
+
+        for (final AsyncFuture<? extends C> q : futures)
+            q.on(done.slot(index++));
+
+        bindSignals(target, futures);
+        return target;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> AsyncFuture<Collection<T>> collectFailFast(final Collection<? extends AsyncFuture<? extends T>> futures) {
+        if (futures.isEmpty())
+            return resolved((Collection<T>) EMPTY_RESULTS);
+
+        return collectFailFast(futures, this.<T> collection());
+    }
+
+    @Override
+    public <C, T> AsyncFuture<T> collectFailFast(final Collection<? extends AsyncFuture<? extends C>> futures,
+            final Collector<? super C, ? extends T> collector) {
+        if (futures.isEmpty())
+            return doCollectEmpty(collector);
+
+        return doCollectFailFast(futures, collector);
+    }
+
+    protected <C, T> AsyncFuture<T> doCollectFailFast(final Collection<? extends AsyncFuture<? extends C>> futures,
+            final Collector<? super C, ? extends T> collector) {
+        final ResolvableFuture<T> target = future();
+
+        final CollectHelper<? super C, ? extends T> done = new CollectHelper<>(futures.size(), collector, target, true);
+
+        for (final AsyncFuture<? extends C> q : futures)
+            q.on(done);
+
+        bindSignals(target, futures);
+        bindFailed(target, futures);
+        return target;
+    }
+
     /**
      * Shortcut for when the list of futures is empty.
      */
@@ -286,6 +370,29 @@ public class TinyAsync implements AsyncFramework {
         return target;
     }
 
+    @Override
+    public <C, T> AsyncFuture<T> collectSerialized(final Collection<? extends AsyncFuture<? extends C>> futures,
+            final StreamCollector<? super C, ? extends T> collector) {
+        if (futures.isEmpty())
+            return doCollectEmpty(collector);
+
+        return doCollectSerialized(futures, collector);
+    }
+
+    protected <T, C> AsyncFuture<T> doCollectSerialized(final Collection<? extends AsyncFuture<? extends C>> futures,
+            final StreamCollector<? super C, ? extends T> collector) {
+        final ResolvableFuture<T> target = future();
+
+        final SerializedCollectStreamHelper<? super C, ? extends T> done = new SerializedCollectStreamHelper<>(
+                directCaller(caller), futures.size(), collector, target);
+
+        for (final AsyncFuture<? extends C> q : futures)
+            q.on(done);
+
+        bindSignals(target, futures);
+        return target;
+    }
+
     @Override
     public <C, T> AsyncFuture<T> eventuallyCollect(
             final Collection<? extends Callable<? extends AsyncFuture<? extends C>>> callables,
@@ -300,6 +407,36 @@ public class TinyAsync implements AsyncFramework {
         return doEventuallyCollect(callables, collector, parallelism);
     }
 
+    @Override
+    public <C, T> AsyncFuture<T> eventuallyCollect(
+            final Iterator<? extends Callable<? extends AsyncFuture<? extends C>>> callables,
+            final StreamCollector<? super C, ? extends T> collector, int parallelism) {
+        if (!callables.hasNext())
+            return doEventuallyCollectEmpty(collector);
+
+        return doEventuallyCollect(callables, collector, parallelism);
+    }
+
+    @Override
+    public <C, T> AsyncFuture<T> eventuallyCollect(
+            final Collection<? extends Callable<? extends AsyncFuture<? extends C>>> callables,
+            final StreamCollector<? super C, ? extends T> collector, final ConcurrencyLimit limit) {
+        if (callables.isEmpty())
+            return doEventuallyCollectEmpty(collector);
+
+        return doEventuallyCollect(callables, collector, limit);
+    }
+
+    @Override
+    public <C, T> AsyncFuture<T> eventuallyCollect(
+            final Iterator<? extends Callable<? extends AsyncFuture<? extends C>>> callables,
+            final StreamCollector<? super C, ? extends T> collector, final ConcurrencyLimit limit) {
+        if (!callables.hasNext())
+            return doEventuallyCollectEmpty(collector);
+
+        return doEventuallyCollect(callables, collector, limit);
+    }
+
     protected static final Collector<? extends Object, ? extends Collection<? extends Object>> collectCollector = new Collector<Object, Collection<Object>>() {
         @Override
         public Collection<Object> collect(Collection<Object> results) throws Exception {
@@ -312,6 +449,21 @@ public class TinyAsync implements AsyncFramework {
         return (Collector<T, Collection<T>>) collectCollector;
     }
 
+    /**
+     * {@link CollectHelper} always hands over its results as a list.
+     */
+    protected static final Collector<? extends Object, ? extends List<? extends Object>> listCollector = new Collector<Object, List<Object>>() {
+        @Override
+        public List<Object> collect(Collection<Object> results) throws Exception {
+            return (List<Object>) results;
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    protected <T> Collector<T, List<T>> list() {
+        return (Collector<T, List<T>>) listCollector;
+    }
+
     protected <T, C> AsyncFuture<T> doEventuallyCollectEmpty(final StreamCollector<? super C, ? extends T> collector) {
         final T value;
 
@@ -348,10 +500,32 @@ public class TinyAsync implements AsyncFramework {
     protected <T, C> AsyncFuture<T> doEventuallyCollect(
             final Collection<? extends Callable<? extends AsyncFuture<? extends C>>> callables,
             final StreamCollector<? super C, ? extends T> collector, int parallelism) {
-        final ExecutorService executor = defaultExecutor();
         final ResolvableFuture<T> future = future();
-        final Semaphore mutex = new Semaphore(parallelism);
-        executor.execute(new DelayedCollectCoordinator<>(caller, callables, collector, mutex, future, parallelism));
+        new DelayedCollectCoordinator<>(caller, callables, collector, future, parallelism).run();
+        return future;
+    }
+
+    protected <T, C> AsyncFuture<T> doEventuallyCollect(
+            final Iterator<? extends Callable<? extends AsyncFuture<? extends C>>> callables,
+            final StreamCollector<? super C, ? extends T> collector, int parallelism) {
+        final ResolvableFuture<T> future = future();
+        new DelayedCollectCoordinator<>(caller, callables, collector, future, parallelism).run();
+        return future;
+    }
+
+    protected <T, C> AsyncFuture<T> doEventuallyCollect(
+            final Collection<? extends Callable<? extends AsyncFuture<? extends C>>> callables,
+            final StreamCollector<? super C, ? extends T> collector, final ConcurrencyLimit limit) {
+        final ResolvableFuture<T> future = future();
+        new DelayedCollectCoordinator<>(caller, callables, collector, future, limit).run();
+        return future;
+    }
+
+    protected <T, C> AsyncFuture<T> doEventuallyCollect(
+            final Iterator<? extends Callable<? extends AsyncFuture<? extends C>>> callables,
+            final StreamCollector<? super C, ? extends T> collector, final ConcurrencyLimit limit) {
+        final ResolvableFuture<T> future = future();
+        new DelayedCollectCoordinator<>(caller, callables, collector, future, limit).run();
         return future;
     }
 
@@ -386,11 +560,42 @@ public class TinyAsync implements AsyncFramework {
         return target;
     }
 
+    @Override
+    public <C> AsyncFuture<Void> collectAndDiscardFailFast(Collection<? extends AsyncFuture<C>> futures) {
+        if (futures.isEmpty())
+            return resolved();
+
+        return doCollectAndDiscardFailFast(futures);
+    }
+
+    protected <C> AsyncFuture<Void> doCollectAndDiscardFailFast(Collection<? extends AsyncFuture<C>> futures) {
+        final ResolvableFuture<Void> target = future();
+
+        final FutureDone<C> done = new CollectAndDiscardHelper<>(futures.size(), target, true);
+
+        for (final AsyncFuture<C> q : futures)
+            q.on(done);
+
+        bindSignals(target, futures);
+        bindFailed(target, futures);
+        return target;
+    }
+
     @Override
     public <C> Managed<C> managed(ManagedSetup<C> setup) {
         return ConcurrentManaged.newManaged(this, setup);
     }
 
+    @Override
+    public <C> ManagedPool<C> managedPool(ManagedSetup<C> setup, int size) {
+        return managedPool(setup, size, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public <C> ManagedPool<C> managedPool(ManagedSetup<C> setup, int size, long idleTimeout, TimeUnit unit) {
+        return new ConcurrentManagedPool<C>(this, setup, timer, defaultExecutor, size, idleTimeout, unit);
+    }
+
     /**
      * Build a new TinyAsync instance.
      *
@@ -416,4 +621,60 @@ public class TinyAsync implements AsyncFramework {
             }
         });
     }
+
+    /**
+     * Cancel the given collection of futures when the target future fails.
+     *
+     * @param target The future to watch for failures.
+     * @param futures The futures to cancel, when {@code target} is failed.
+     */
+    protected <T> void bindFailed(final AsyncFuture<T> target, final Collection<? extends AsyncFuture<?>> futures) {
+        target.on(new FutureFailed() {
+            @Override
+            public void failed(Throwable cause) throws Exception {
+                for (final AsyncFuture<?> f : futures)
+                    f.cancel();
+            }
+        });
+    }
+
+    /**
+     * Unwrap the given caller into one that invokes handles on the calling thread, before returning.
+     *
+     * Threaded callers, and trampolined callers that defer re-entrant invocations, are not suitable when the order and
+     * exclusivity of invocations matter.
+     *
+     * @param caller The caller to unwrap.
+     * @return A caller that invokes handles directly.
+     */
+    static AsyncCaller directCaller(AsyncCaller caller) {
+        while (true) {
+            if (caller instanceof ExecutorAsyncCaller) {
+                caller = ((ExecutorAsyncCaller) caller).caller();
+                continue;
+            }
+
+            if (caller instanceof TrampolineAsyncCaller) {
+                caller = ((TrampolineAsyncCaller) caller).caller();
+                continue;
+            }
+
+            return caller;
+        }
+    }
+
+    /**
+     * @return The timer shared by all instances which have not been configured with a timer.
+     */
+    static HashedWheelTimer defaultTimer() {
+        return DefaultTimer.TIMER;
+    }
+
+    /**
+     * Timer shared by all instances which have not been configured with a timer, its worker thread is only started
+     * when the first timeout is scheduled.
+     */
+    private static final class DefaultTimer {
+        private static final HashedWheelTimer TIMER = new HashedWheelTimer();
+    }
 }
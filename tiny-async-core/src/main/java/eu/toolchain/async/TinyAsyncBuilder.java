@@ -6,8 +6,13 @@ import java.util.concurrent.ExecutorService;
 public class TinyAsyncBuilder {
     private AsyncCaller caller;
     private boolean threaded;
+    private boolean trampoline;
+    private int callerBatchSize = 1;
     private ExecutorService executor;
+    private boolean virtualThreadExecutor;
     private ExecutorService callerExecutor;
+    private HashedWheelTimer timer;
+    private boolean interruptOnCancel;
 
     protected TinyAsyncBuilder() {
     }
@@ -26,6 +31,40 @@ public class TinyAsyncBuilder {
         return this;
     }
 
+    /**
+     * Configure that re-entrant caller invocations should be flattened into a per-thread queue, instead of being
+     * invoked recursively on the calling thread.
+     *
+     * This prevents deep stacks when long chains of futures are completed in the same thread.
+     *
+     * @param trampoline Set {@code true} if caller invocations should be trampolined, {@code false} otherwise.
+     * @return This builder.
+     * @see TrampolineAsyncCaller
+     */
+    public TinyAsyncBuilder trampoline(boolean trampoline) {
+        this.trampoline = trampoline;
+        return this;
+    }
+
+    /**
+     * Configure the maximum number of callbacks of a single completion that the threaded caller should invoke from the
+     * same executor task.
+     *
+     * When a future with many listeners is completed, this submits a few large tasks to the caller executor instead of
+     * one task per listener. Use {@link Integer#MAX_VALUE} to invoke all callbacks of a completion as a single task.
+     *
+     * @param callerBatchSize Maximum number of callbacks per task, defaults to {@code 1}.
+     * @return This builder.
+     * @see ExecutorAsyncCaller#batchSize()
+     */
+    public TinyAsyncBuilder callerBatchSize(int callerBatchSize) {
+        if (callerBatchSize < 1)
+            throw new IllegalArgumentException("callerBatchSize must be positive");
+
+        this.callerBatchSize = callerBatchSize;
+        return this;
+    }
+
     /**
      * Specify an asynchronous caller implementation.
      *
@@ -56,6 +95,43 @@ public class TinyAsyncBuilder {
             throw new NullPointerException("executor");
 
         this.executor = executor;
+        this.virtualThreadExecutor = false;
+        return this;
+    }
+
+    /**
+     * Configure the default executor to start a new virtual thread for every task.
+     *
+     * This is suitable for blocking tasks submitted through {@link AsyncFramework#call(Callable)}, and requires a
+     * runtime with support for virtual threads. The executor is created by {@link #build()}, and replaces any executor
+     * configured through {@link #executor(ExecutorService)}.
+     *
+     * Unlike an executor configured through {@link #executor(ExecutorService)}, it is not used to invoke handles unless
+     * explicitly requested through {@link #threaded(boolean)}, since that would start a new virtual thread for every
+     * listener. Use {@link #callerExecutor(ExecutorService)} to invoke handles on a separate executor instead.
+     *
+     * @return This builder.
+     * @throws IllegalStateException if the current runtime does not support virtual threads.
+     */
+    public TinyAsyncBuilder virtualThreadExecutor() {
+        if (!VirtualThreads.isAvailable())
+            throw new IllegalStateException("virtual threads are not supported by the current runtime");
+
+        this.executor = null;
+        this.virtualThreadExecutor = true;
+        return this;
+    }
+
+    /**
+     * Configure that the thread running a callable submitted through {@link AsyncFramework#call(Callable)} should be
+     * interrupted when the future of the call is cancelled.
+     *
+     * @param interruptOnCancel Set {@code true} if running callables should be interrupted on cancel, {@code false}
+     *            otherwise.
+     * @return This builder.
+     */
+    public TinyAsyncBuilder interruptOnCancel(boolean interruptOnCancel) {
+        this.interruptOnCancel = interruptOnCancel;
         return this;
     }
 
@@ -76,13 +152,31 @@ public class TinyAsyncBuilder {
         return this;
     }
 
+    /**
+     * Specify the timer to use for timeouts.
+     *
+     * If not specified, a timer that is shared between all instances without a configured timer will be used.
+     *
+     * @param timer Timer to use for timeouts.
+     * @return This builder.
+     * @see AsyncFramework#timeout(AsyncFuture, long, java.util.concurrent.TimeUnit)
+     */
+    public TinyAsyncBuilder timer(HashedWheelTimer timer) {
+        if (timer == null)
+            throw new NullPointerException("timer");
+
+        this.timer = timer;
+        return this;
+    }
+
     public TinyAsync build() {
         final ExecutorService defaultExecutor = setupDefaultExecutor();
         final ExecutorService callerExecutor = setupCallerExecutor(defaultExecutor);
         final AsyncCaller caller = setupCaller();
         final AsyncCaller threadedCaller = setupThreadedCaller(caller, callerExecutor);
 
-        return new TinyAsync(defaultExecutor, caller, threadedCaller);
+        final HashedWheelTimer timer = this.timer != null ? this.timer : TinyAsync.defaultTimer();
+        return new TinyAsync(defaultExecutor, caller, threadedCaller, timer, interruptOnCancel);
     }
 
     private AsyncCaller setupThreadedCaller(AsyncCaller caller, ExecutorService callerExecutor) {
@@ -90,12 +184,15 @@ public class TinyAsyncBuilder {
             return caller;
 
         if (callerExecutor != null)
-            return new ExecutorAsyncCaller(callerExecutor, caller);
+            return new ExecutorAsyncCaller(callerExecutor, caller, callerBatchSize);
 
         return null;
     }
 
     private ExecutorService setupDefaultExecutor() {
+        if (virtualThreadExecutor)
+            return VirtualThreads.newExecutor();
+
         if (executor != null)
             return executor;
 
@@ -112,7 +209,8 @@ public class TinyAsyncBuilder {
         if (callerExecutor != null)
             return callerExecutor;
 
-        if (defaultExecutor != null)
+        // a virtual thread executor is only used for handles if explicitly requested.
+        if (defaultExecutor != null && (threaded || !virtualThreadExecutor))
             return defaultExecutor;
 
         if (!threaded)
@@ -129,8 +227,16 @@ public class TinyAsyncBuilder {
      * @return A caller implementation according to the provided configuration.
      */
     private AsyncCaller setupCaller() {
-        if (caller == null)
-            return new PrintStreamDefaultAsyncCaller(System.err);
+        final AsyncCaller caller;
+
+        if (this.caller == null) {
+            caller = new PrintStreamDefaultAsyncCaller(System.err);
+        } else {
+            caller = this.caller;
+        }
+
+        if (trampoline && !caller.isThreaded())
+            return new TrampolineAsyncCaller(caller);
 
         return caller;
     }
@@ -0,0 +1,86 @@
+package eu.toolchain.async;
+
+import java.util.Arrays;
+
+import eu.toolchain.async.helper.FusedTransformHelper;
+
+/**
+ * Implementation of {@link AsyncFramework#pipeline(AsyncFuture)}.
+ *
+ * Steps are stored in two parallel arrays, which are handed over to a single {@link FusedTransformHelper} when the
+ * pipeline is built.
+ *
+ * @param <T> The type of the value at the current end of the pipeline.
+ */
+public class TinyAsyncPipeline<T> implements AsyncPipeline<T> {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final AsyncFramework async;
+    private final AsyncFuture<?> source;
+
+    private Object[] transforms = new Object[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public TinyAsyncPipeline(final AsyncFramework async, final AsyncFuture<T> source) {
+        this.async = async;
+        this.source = source;
+    }
+
+    @Override
+    public <R> AsyncPipeline<R> transform(Transform<? super T, ? extends R> transform) {
+        return add(FusedTransformHelper.TRANSFORM, transform);
+    }
+
+    @Override
+    public <R> AsyncPipeline<R> lazyTransform(LazyTransform<? super T, R> transform) {
+        return add(FusedTransformHelper.LAZY_TRANSFORM, transform);
+    }
+
+    @Override
+    public AsyncPipeline<T> catchFailed(Transform<Throwable, ? extends T> transform) {
+        return add(FusedTransformHelper.CATCH_FAILED, transform);
+    }
+
+    @Override
+    public AsyncPipeline<T> lazyCatchFailed(LazyTransform<Throwable, T> transform) {
+        return add(FusedTransformHelper.LAZY_CATCH_FAILED, transform);
+    }
+
+    @Override
+    public AsyncPipeline<T> catchCancelled(Transform<Void, ? extends T> transform) {
+        return add(FusedTransformHelper.CATCH_CANCELLED, transform);
+    }
+
+    @Override
+    public AsyncPipeline<T> lazyCatchCancelled(LazyTransform<Void, T> transform) {
+        return add(FusedTransformHelper.LAZY_CATCH_CANCELLED, transform);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public AsyncFuture<T> future() {
+        if (size == 0)
+            return (AsyncFuture<T>) source;
+
+        final ResolvableFuture<Object> target = async.future();
+        source.on(new FusedTransformHelper(transforms, types, size, target));
+        return (AsyncFuture<T>) target.bind(source);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> AsyncPipeline<R> add(final byte type, final Object transform) {
+        if (transform == null)
+            throw new NullPointerException("transform");
+
+        if (size == transforms.length) {
+            transforms = Arrays.copyOf(transforms, size * 2);
+            types = Arrays.copyOf(types, size * 2);
+        }
+
+        transforms[size] = transform;
+        types[size] = type;
+        size++;
+        return (AsyncPipeline<R>) this;
+    }
+}
@@ -0,0 +1,205 @@
+package eu.toolchain.async;
+
+import java.util.ArrayDeque;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A caller that flattens re-entrant invocations into a per-thread queue.
+ *
+ * <p>
+ * The first invocation on a thread runs the handle directly, and then drains all handles that were invoked while it was
+ * running. Any handle invoked from within another handle (e.g. a listener resolving another future) is queued up
+ * instead of being run on top of the current stack.
+ * </p>
+ *
+ * <p>
+ * This keeps the stack depth constant regardless of the length of a chain of already completed futures, like long
+ * chains of {@link AsyncFuture#lazyTransform(LazyTransform)}. The trade-off is that a re-entrant call to for example
+ * {@link ResolvableFuture#resolve(Object)} returns before its listeners have been run.
+ * </p>
+ */
+@RequiredArgsConstructor
+public final class TrampolineAsyncCaller implements AsyncCaller {
+    private static final ThreadLocal<Trampoline> trampoline = new ThreadLocal<Trampoline>() {
+        @Override
+        protected Trampoline initialValue() {
+            return new Trampoline();
+        }
+    };
+
+    private final AsyncCaller caller;
+
+    @Override
+    public <T> void resolve(final FutureDone<T> handle, final T result) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.resolve(handle, result);
+            }
+        });
+    }
+
+    @Override
+    public <T> void fail(final FutureDone<T> handle, final Throwable error) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.fail(handle, error);
+            }
+        });
+    }
+
+    @Override
+    public <T> void cancel(final FutureDone<T> handle) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.cancel(handle);
+            }
+        });
+    }
+
+    @Override
+    public void cancel(final FutureCancelled cancelled) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.cancel(cancelled);
+            }
+        });
+    }
+
+    @Override
+    public void finish(final FutureFinished finishable) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.finish(finishable);
+            }
+        });
+    }
+
+    @Override
+    public <T> void resolve(final FutureResolved<T> resolved, final T value) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.resolve(resolved, value);
+            }
+        });
+    }
+
+    @Override
+    public <T, R> void resolve(final StreamCollector<T, R> collector, final T result) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.resolve(collector, result);
+            }
+        });
+    }
+
+    @Override
+    public <T, R> void fail(final StreamCollector<T, R> collector, final Throwable error) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.fail(collector, error);
+            }
+        });
+    }
+
+    @Override
+    public <T, R> void cancel(final StreamCollector<T, R> collector) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.cancel(collector);
+            }
+        });
+    }
+
+    @Override
+    public void fail(final FutureFailed failed, final Throwable cause) {
+        dispatch(new Runnable() {
+            @Override
+            public void run() {
+                caller.fail(failed, cause);
+            }
+        });
+    }
+
+    @Override
+    public <T> void referenceLeaked(final T reference, final StackTraceElement[] stack) {
+        caller.referenceLeaked(reference, stack);
+    }
+
+    @Override
+    public boolean isThreaded() {
+        return caller.isThreaded();
+    }
+
+    /**
+     * The caller that handles are invoked through when the queue is drained.
+     *
+     * @return The caller that handles are invoked through when the queue is drained.
+     */
+    public AsyncCaller caller() {
+        return caller;
+    }
+
+    /**
+     * Queue up the given task, and drain the queue of the current thread unless it is already being drained further up
+     * the stack.
+     *
+     * A task throwing does not prevent the remaining tasks from running, the first thrown error is re-thrown once the
+     * queue has been drained and any later ones are added to it as suppressed.
+     */
+    private void dispatch(final Runnable task) {
+        final Trampoline t = trampoline.get();
+
+        t.queue.add(task);
+
+        if (t.running)
+            return;
+
+        t.running = true;
+
+        Throwable error = null;
+
+        try {
+            Runnable next;
+
+            while ((next = t.queue.poll()) != null) {
+                try {
+                    next.run();
+                } catch (final Throwable e) {
+                    if (error == null) {
+                        error = e;
+                    } else {
+                        error.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            t.running = false;
+        }
+
+        if (error == null)
+            return;
+
+        if (error instanceof RuntimeException)
+            throw (RuntimeException) error;
+
+        if (error instanceof Error)
+            throw (Error) error;
+
+        throw new RuntimeException(error);
+    }
+
+    private static final class Trampoline {
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private boolean running = false;
+    }
+}
@@ -0,0 +1,77 @@
+package eu.toolchain.async;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads, when running on a runtime which supports them.
+ *
+ * This library is built for runtimes without virtual threads, so they are accessed reflectively.
+ */
+final class VirtualThreads {
+    private static final Method NEW_EXECUTOR = lookupNewExecutor();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return {@code true} if the current runtime supports virtual threads.
+     */
+    static boolean isAvailable() {
+        return NEW_EXECUTOR != null;
+    }
+
+    /**
+     * Create an executor that starts a new virtual thread for each task.
+     *
+     * @return A new executor.
+     * @throws IllegalStateException if the current runtime does not support virtual threads.
+     */
+    static ExecutorService newExecutor() {
+        if (NEW_EXECUTOR == null)
+            throw new IllegalStateException("virtual threads are not supported by the current runtime");
+
+        try {
+            return (ExecutorService) NEW_EXECUTOR.invoke(null);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException("failed to create virtual thread executor", e);
+        } catch (final InvocationTargetException e) {
+            throw new IllegalStateException("failed to create virtual thread executor", e.getCause());
+        }
+    }
+
+    private static Method lookupNewExecutor() {
+        try {
+            return probe(Executors.class.getMethod("newVirtualThreadPerTaskExecutor"));
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Invoke the executor factory once, since it might exist without being usable. For example, on runtimes where
+     * virtual threads are a preview feature which has not been enabled, it throws {@link UnsupportedOperationException}.
+     *
+     * @param method The static executor factory to probe.
+     * @return The given method if invoking it created an executor, {@code null} otherwise.
+     */
+    static Method probe(final Method method) {
+        final Object executor;
+
+        try {
+            executor = method.invoke(null);
+        } catch (final IllegalAccessException e) {
+            return null;
+        } catch (final InvocationTargetException e) {
+            return null;
+        }
+
+        if (!(executor instanceof ExecutorService))
+            return null;
+
+        ((ExecutorService) executor).shutdown();
+        return method;
+    }
+}
@@ -1,13 +1,8 @@
 package eu.toolchain.async.concurrent;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReference;
 
 import lombok.RequiredArgsConstructor;
@@ -27,22 +22,26 @@ import eu.toolchain.async.Transform;
 public class ConcurrentManaged<T> implements Managed<T> {
     private static final boolean TRACING;
     private static final boolean CAPTURE_STACK;
+    private static final LeakDetector LEAKS;
+    private static final LeaseTraces TRACES;
+
+    private static final int DEFAULT_LEAK_SAMPLING = 128;
 
     // fetch and compare the value of properties that modifies runtime behaviour of this class.
     static {
         TRACING = "on".equals(System.getProperty(Managed.TRACING, "off"));
         CAPTURE_STACK = "on".equals(System.getProperty(Managed.CAPTURE_STACK, "off"));
+        LEAKS = new LeakDetector(intProperty(Managed.LEAK_SAMPLING, DEFAULT_LEAK_SAMPLING));
+        TRACES = TRACING ? new LeaseTraces() : null;
     }
 
     private static final InvalidBorrowed<?> INVALID = new InvalidBorrowed<>();
 
-    private static final StackTraceElement[] EMPTY_STACK = new StackTraceElement[0];
-
     private final AsyncFramework async;
     private final ManagedSetup<T> setup;
 
-    // the managed reference.
-    protected final AtomicReference<T> reference = new AtomicReference<>();
+    // the current generation of the managed reference.
+    protected final AtomicReference<Generation<T>> reference = new AtomicReference<>();
 
     // acts to allow only a single thread to setup the reference.
     private final ResolvableFuture<Void> startFuture;
@@ -52,15 +51,8 @@ public class ConcurrentManaged<T> implements Managed<T> {
     // composite future that depends on zero-lease, and stop-reference.
     private final AsyncFuture<Void> stopFuture;
 
-    protected final Set<ValidBorrowed<T>> traces;
-
     protected final AtomicReference<ManagedState> state = new AtomicReference<ManagedState>(ManagedState.INITIALIZED);
 
-    /**
-     * The number of borrowed references that are out in the wild.
-     */
-    protected final AtomicInteger leases = new AtomicInteger(1);
-
     public static <T> ConcurrentManaged<T> newManaged(final AsyncFramework async, final ManagedSetup<T> setup) {
         final ResolvableFuture<Void> startFuture = async.future();
         final ResolvableFuture<Void> zeroLeaseFuture = async.future();
@@ -91,12 +83,6 @@ public class ConcurrentManaged<T> implements Managed<T> {
         this.zeroLeaseFuture = zeroLeaseFuture;
         this.stopReferenceFuture = stopReferenceFuture;
         this.stopFuture = stopFuture;
-
-        if (TRACING) {
-            traces = Collections.newSetFromMap(new ConcurrentHashMap<ValidBorrowed<T>, Boolean>());
-        } else {
-            traces = null;
-        }
     }
 
     @Override
@@ -126,21 +112,31 @@ public class ConcurrentManaged<T> implements Managed<T> {
     @SuppressWarnings("unchecked")
     @Override
     public Borrowed<T> borrow() {
-        // pre-emptively increase the number of leases in order to prevent the underlying object (if valid) to be
-        // allocated.
-        retain();
+        Generation<T> generation;
 
-        final T value = reference.get();
+        while (true) {
+            generation = reference.get();
 
-        if (value == null) {
-            release();
-            return (Borrowed<T>) INVALID;
+            if (generation == null)
+                return (Borrowed<T>) INVALID;
+
+            // pre-emptively increase the number of leases in order to prevent the underlying object (if valid) to be
+            // de-allocated.
+            retain(generation);
+
+            // the generation is still current, it cannot be retired without seeing this lease.
+            if (reference.get() == generation)
+                break;
+
+            release(generation);
         }
 
-        final ValidBorrowed<T> b = new ValidBorrowed<T>(this, async, value, getStackTrace());
+        final Throwable trace = captureStack();
+        final ValidBorrowed<T> b = new ValidBorrowed<T>(this, generation, trace);
+        b.leak = LEAKS.track(b, async, generation.value, trace);
 
         if (TRACING)
-            traces.add(b);
+            TRACES.add(b);
 
         return b;
     }
@@ -169,7 +165,7 @@ public class ConcurrentManaged<T> implements Managed<T> {
                 if (result == null)
                     throw new IllegalArgumentException("setup reference must no non-null");
 
-                reference.set(result);
+                reference.set(new Generation<T>(result));
                 return null;
             }
         }).on(new FutureDone<Void>() {
@@ -195,32 +191,119 @@ public class ConcurrentManaged<T> implements Managed<T> {
         if (!state.compareAndSet(ManagedState.STARTED, ManagedState.STOPPED))
             return stopFuture;
 
-        stopReferenceFuture.resolve(this.reference.getAndSet(null));
+        final Generation<T> generation = this.reference.getAndSet(null);
+
+        if (generation == null) {
+            stopReferenceFuture.resolve(null);
+            zeroLeaseFuture.resolve(null);
+            return stopFuture;
+        }
 
-        // release self-reference.
-        release();
+        stopReferenceFuture.resolve(generation.value);
+        retire(generation, zeroLeaseFuture);
         return stopFuture;
     }
 
-    protected void retain() {
-        leases.incrementAndGet();
+    @Override
+    public AsyncFuture<Void> reload() {
+        if (state.get() != ManagedState.STARTED || reference.get() == null)
+            return async.cancelled();
+
+        final AsyncFuture<T> constructor;
+
+        try {
+            constructor = setup.construct();
+        } catch (Exception e) {
+            return async.failed(e);
+        }
+
+        return constructor.lazyTransform(new LazyTransform<T, Void>() {
+            @Override
+            public AsyncFuture<Void> transform(T result) throws Exception {
+                if (result == null)
+                    throw new IllegalArgumentException("setup reference must no non-null");
+
+                final Generation<T> next = new Generation<T>(result);
+
+                Generation<T> previous;
+
+                do {
+                    previous = reference.get();
+
+                    // stopped while constructing, the new reference was never visible.
+                    if (previous == null || state.get() != ManagedState.STARTED)
+                        return setup.destruct(result);
+                } while (!reference.compareAndSet(previous, next));
+
+                final Generation<T> retired = previous;
+                final ResolvableFuture<Void> zeroLease = async.future();
+
+                retire(retired, zeroLease);
+
+                return zeroLease.lazyTransform(new LazyTransform<Void, Void>() {
+                    @Override
+                    public AsyncFuture<Void> transform(Void v) throws Exception {
+                        return setup.destruct(retired.value);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Retire a generation which is no longer current, and release its self-reference.
+     *
+     * @param generation The generation to retire, must already have been replaced as the current generation.
+     * @param zeroLease Future to resolve when the generation has no leases left.
+     */
+    protected void retire(final Generation<T> generation, final ResolvableFuture<Void> zeroLease) {
+        // must happen after the generation has been replaced, any valid lease has now been retained and is visible in
+        // the sum.
+        generation.retired = zeroLease;
+        release(generation);
+    }
+
+    protected void retain(final Generation<T> generation) {
+        generation.leases.increment();
     }
 
-    protected void release() {
-        final int lease = leases.decrementAndGet();
+    protected void release(final Generation<T> generation) {
+        generation.leases.decrement();
 
-        if (lease == 0)
-            zeroLeaseFuture.resolve(null);
+        final ResolvableFuture<Void> zeroLease = generation.retired;
+
+        // the self-reference keeps the lease count above zero until retired.
+        if (zeroLease == null)
+            return;
+
+        if (generation.leases.sum() == 0)
+            zeroLease.resolve(null);
     }
 
     @Override
     public String toString() {
-        final T reference = this.reference.get();
+        final Generation<T> generation = this.reference.get();
+        final T reference = generation != null ? generation.value : null;
 
         if (!TRACING)
             return String.format("Managed(%s, %s)", state, reference);
 
-        return toStringTracing(reference, new ArrayList<>(this.traces));
+        return toStringTracing(reference, outstanding());
+    }
+
+    /**
+     * Aggregate the traced borrowed references of this managed reference which have not been released.
+     */
+    @SuppressWarnings("unchecked")
+    protected List<ValidBorrowed<T>> outstanding() {
+        final List<ValidBorrowed<T>> result = new ArrayList<>();
+
+        for (final ValidBorrowed<?> b : TRACES.outstanding()) {
+            if (b.managed == this)
+                result.add((ValidBorrowed<T>) b);
+        }
+
+        return result;
     }
 
     protected String toStringTracing(final T reference, List<ValidBorrowed<T>> traces) {
@@ -239,12 +322,29 @@ public class ConcurrentManaged<T> implements Managed<T> {
         return builder.toString();
     }
 
-    protected StackTraceElement[] getStackTrace() {
+    /**
+     * Capture the stack of the borrowing thread, if enabled.
+     *
+     * @return The captured stack, or {@code null} if stacks are not captured.
+     */
+    protected Throwable captureStack() {
         if (!CAPTURE_STACK)
-            return EMPTY_STACK;
+            return null;
+
+        return LeaseTraces.capture();
+    }
 
-        final StackTraceElement[] stack = Thread.currentThread().getStackTrace();
-        return Arrays.copyOfRange(stack, 0, stack.length - 2);
+    static int intProperty(final String property, final int defaultValue) {
+        final String value = System.getProperty(property);
+
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (final NumberFormatException e) {
+            return defaultValue;
+        }
     }
 
     protected static class InvalidBorrowed<T> implements Borrowed<T> {
@@ -278,58 +378,89 @@ public class ConcurrentManaged<T> implements Managed<T> {
         }
     }
 
+    /**
+     * A constructed reference, with the leases taken on it.
+     *
+     * A managed reference goes through a new generation every time it is reloaded. Each generation counts its own
+     * leases, so that it can be destructed when the last lease is released, without waiting for any other generation.
+     */
+    protected static class Generation<T> {
+        protected final T value;
+
+        /**
+         * The number of borrowed references that are out in the wild, including the self-reference.
+         *
+         * Striped to keep concurrent borrowers from contending on a single counter, the sum is only inspected once the
+         * generation has been retired.
+         */
+        protected final StripedCounter leases = new StripedCounter();
+
+        /**
+         * Set when the generation is retired, from this point every release checks for zero leases.
+         */
+        protected volatile ResolvableFuture<Void> retired = null;
+
+        protected Generation(final T value) {
+            this.value = value;
+            // self-reference, released when retired.
+            this.leases.increment();
+        }
+    }
+
     /**
      * Wraps returned references that are taken from this SetupOnce instance.
      */
     @RequiredArgsConstructor
-    protected static class ValidBorrowed<T> implements Borrowed<T> {
+    protected static class ValidBorrowed<T> implements Borrowed<T>, FutureFinished {
         private final ConcurrentManaged<T> managed;
-        private final AsyncFramework async;
-        private final T reference;
-        protected final StackTraceElement[] stack;
+        private final Generation<T> generation;
+        protected final Throwable trace;
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<ValidBorrowed> RELEASED = AtomicIntegerFieldUpdater
+                .newUpdater(ValidBorrowed.class, "released");
+
+        protected volatile int released = 0;
 
-        protected final AtomicBoolean released = new AtomicBoolean(false);
+        // set if this borrowed reference was sampled for leak detection.
+        protected LeakDetector.Tracker leak;
+
+        // set if this borrowed reference is traced, slot is moved when the buffer is compacted.
+        protected LeaseTraces.Buffer traced;
+        protected volatile int slot;
 
         @Override
         public T get() {
-            return reference;
+            return generation.value;
         }
 
         @Override
         public void release() {
-            if (!released.compareAndSet(false, true))
+            if (!RELEASED.compareAndSet(this, 0, 1))
                 return;
 
-            if (TRACING)
-                managed.traces.remove(this);
+            if (leak != null)
+                leak.close();
+
+            if (traced != null)
+                traced.remove(this);
 
-            managed.release();
+            managed.release(generation);
         }
 
         @Override
         public FutureFinished releasing() {
-            return new FutureFinished() {
-                @Override
-                public void finished() throws Exception {
-                    release();
-                }
-            };
+            return this;
         }
 
         @Override
-        public void close() {
+        public void finished() throws Exception {
             release();
         }
 
-        /**
-         * Implement to log errors on release errors.
-         */
         @Override
-        protected void finalize() throws Throwable {
-            if (released.get())
-                return;
-
-            async.caller().referenceLeaked(reference, stack);
+        public void close() {
+            release();
         }
 
         @Override
@@ -338,7 +469,11 @@ public class ConcurrentManaged<T> implements Managed<T> {
         }
 
         public StackTraceElement[] stack() {
-            return stack;
+            return LeaseTraces.stack(trace);
+        }
+
+        public boolean isReleased() {
+            return released != 0;
         }
     }
 
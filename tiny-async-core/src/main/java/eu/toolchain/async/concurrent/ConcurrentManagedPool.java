@@ -0,0 +1,621 @@
+package eu.toolchain.async.concurrent;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.Borrowed;
+import eu.toolchain.async.FutureCancelled;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.FutureFinished;
+import eu.toolchain.async.HashedWheelTimer;
+import eu.toolchain.async.LazyTransform;
+import eu.toolchain.async.ManagedAction;
+import eu.toolchain.async.ManagedPool;
+import eu.toolchain.async.ManagedSetup;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.concurrent.ConcurrentManaged.InvalidBorrowed;
+import eu.toolchain.async.concurrent.ConcurrentManaged.ManagedState;
+
+/**
+ * A pool of managed references, borrowed exclusively.
+ *
+ * <p>
+ * Idle references are kept in a lock-free deque, borrowing an idle reference is a poll and a compare-and-set. Only when
+ * the pool is exhausted are callers queued, waiters are matched with released references by whichever thread
+ * currently owns the drain loop.
+ * </p>
+ *
+ * <p>
+ * Idle references are kept in LIFO order so that the least recently used references gather at the tail, where they
+ * are evicted from by a periodic task on the framework's timer. The timer only hands eviction off to the given executor
+ * if there is one, so that destructors do not run on the timer thread.
+ * </p>
+ */
+public class ConcurrentManagedPool<T> implements ManagedPool<T> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ConcurrentManagedPool> WIP = AtomicIntegerFieldUpdater.newUpdater(
+            ConcurrentManagedPool.class, "wip");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentManagedPool, Generation> GENERATION =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentManagedPool.class, Generation.class, "generation");
+
+    private static final InvalidBorrowed<?> INVALID = new InvalidBorrowed<>();
+
+    private final AsyncFramework async;
+    private final ManagedSetup<T> setup;
+    private final HashedWheelTimer timer;
+    private final Executor executor;
+    private final int size;
+    private final long idleTimeoutNanos;
+
+    private final ResolvableFuture<Void> stopFuture;
+
+    protected final ConcurrentLinkedDeque<Entry<T>> idle = new ConcurrentLinkedDeque<>();
+    protected final ConcurrentLinkedQueue<ResolvableFuture<Borrowed<T>>> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of references that are constructed, being constructed, or being destructed.
+     */
+    protected final AtomicInteger allocated = new AtomicInteger();
+
+    protected final AtomicReference<ManagedState> state = new AtomicReference<ManagedState>(ManagedState.INITIALIZED);
+
+    /**
+     * Replaced on every reload, entries from an earlier generation are destructed instead of being borrowed.
+     */
+    protected volatile Generation generation;
+
+    private volatile HashedWheelTimer.Timeout evictTimeout;
+
+    private volatile int wip;
+
+    public ConcurrentManagedPool(final AsyncFramework async, final ManagedSetup<T> setup,
+            final HashedWheelTimer timer, final Executor executor, final int size, final long idleTimeout,
+            final TimeUnit unit) {
+        if (size <= 0)
+            throw new IllegalArgumentException("size must be positive");
+
+        if (idleTimeout < 0)
+            throw new IllegalArgumentException("idleTimeout must be non-negative");
+
+        if (unit == null)
+            throw new NullPointerException("unit");
+
+        this.async = async;
+        this.setup = setup;
+        this.timer = timer;
+        this.executor = executor;
+        this.size = size;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        this.stopFuture = async.future();
+        this.generation = new Generation(async.<Void> future());
+    }
+
+    @Override
+    public AsyncFuture<Void> start() {
+        if (state.compareAndSet(ManagedState.INITIALIZED, ManagedState.STARTED))
+            scheduleEviction();
+
+        return async.resolved();
+    }
+
+    @Override
+    public AsyncFuture<Void> stop() {
+        if (!state.compareAndSet(ManagedState.STARTED, ManagedState.STOPPED))
+            return stopFuture;
+
+        final HashedWheelTimer.Timeout timeout = evictTimeout;
+
+        if (timeout != null)
+            timeout.cancel();
+
+        destructIdle();
+        // cancels all waiters.
+        drain();
+
+        if (allocated.get() == 0)
+            stopFuture.resolve(null);
+
+        return stopFuture;
+    }
+
+    @Override
+    public AsyncFuture<Void> reload() {
+        if (state.get() != ManagedState.STARTED)
+            return async.cancelled();
+
+        final Generation previous = GENERATION.getAndSet(this, new Generation(async.<Void> future()));
+        final Iterator<Entry<T>> it = idle.iterator();
+
+        while (it.hasNext()) {
+            final Entry<T> entry = it.next();
+
+            if (entry.generation == generation || !entry.evict())
+                continue;
+
+            it.remove();
+            destruct(entry);
+        }
+
+        // borrowed entries of the previous generation are destructed as they are released.
+        previous.release();
+        return previous.retired;
+    }
+
+    @Override
+    public boolean isReady() {
+        return state.get() == ManagedState.STARTED;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Borrowed<T> borrow() {
+        if (state.get() != ManagedState.STARTED)
+            return (Borrowed<T>) INVALID;
+
+        final Entry<T> entry = pollIdle();
+
+        if (entry == null)
+            return (Borrowed<T>) INVALID;
+
+        return new PooledBorrowed<T>(this, entry);
+    }
+
+    @Override
+    public AsyncFuture<Borrowed<T>> acquire() {
+        if (state.get() != ManagedState.STARTED)
+            return async.cancelled();
+
+        // only take the fast path if no one is queued, to avoid starving waiters.
+        if (waiters.isEmpty()) {
+            final Entry<T> entry = pollIdle();
+
+            if (entry != null)
+                return async.<Borrowed<T>> resolved(new PooledBorrowed<T>(this, entry));
+        }
+
+        final ResolvableFuture<Borrowed<T>> future = async.future();
+
+        if (waiters.isEmpty() && reserve()) {
+            construct(future);
+            return future;
+        }
+
+        waiters.offer(future);
+
+        future.on(new FutureCancelled() {
+            @Override
+            public void cancelled() throws Exception {
+                waiters.remove(future);
+            }
+        });
+
+        drain();
+        return future;
+    }
+
+    @Override
+    public <R> AsyncFuture<R> doto(final ManagedAction<T, R> action) {
+        return acquire().lazyTransform(new LazyTransform<Borrowed<T>, R>() {
+            @Override
+            public AsyncFuture<R> transform(final Borrowed<T> b) throws Exception {
+                final AsyncFuture<R> f;
+
+                try {
+                    f = action.action(b.get());
+                } catch (final Exception e) {
+                    b.release();
+                    throw e;
+                }
+
+                return f.on(b.releasing());
+            }
+        });
+    }
+
+    /**
+     * Return a borrowed entry to the pool.
+     */
+    protected void release(final Entry<T> entry) {
+        if (entry.generation != generation) {
+            entry.state = Entry.EVICTED;
+            destruct(entry);
+            return;
+        }
+
+        if (idleTimeoutNanos > 0)
+            entry.lastUsed = System.nanoTime();
+
+        entry.state = Entry.IDLE;
+        idle.offerFirst(entry);
+
+        // must be checked after the entry is visible in the idle deque, stop() will otherwise miss it.
+        if (state.get() == ManagedState.STOPPED) {
+            destructIdle();
+            return;
+        }
+
+        if (!waiters.isEmpty())
+            drain();
+    }
+
+    /**
+     * Destruct idle entries which have not been used since before the given time.
+     */
+    protected void evict(final long now) {
+        final Iterator<Entry<T>> it = idle.descendingIterator();
+
+        while (it.hasNext()) {
+            final Entry<T> entry = it.next();
+
+            // entries are ordered by last use, everything closer to the head is more recent.
+            if (now - entry.lastUsed < idleTimeoutNanos)
+                break;
+
+            if (!entry.evict())
+                continue;
+
+            it.remove();
+            destruct(entry);
+        }
+    }
+
+    /**
+     * Match waiters with idle entries, or with free capacity.
+     */
+    private void drain() {
+        if (WIP.getAndIncrement(this) != 0)
+            return;
+
+        int missed = 1;
+
+        for (;;) {
+            for (;;) {
+                if (state.get() == ManagedState.STOPPED) {
+                    ResolvableFuture<Borrowed<T>> waiter;
+
+                    while ((waiter = waiters.poll()) != null)
+                        waiter.cancel();
+
+                    break;
+                }
+
+                final ResolvableFuture<Borrowed<T>> waiter = waiters.peek();
+
+                if (waiter == null)
+                    break;
+
+                // completed, but not yet removed by its own listener.
+                if (waiter.isDone()) {
+                    waiters.poll();
+                    continue;
+                }
+
+                final Entry<T> entry = pollIdle();
+
+                if (entry != null) {
+                    waiters.poll();
+
+                    if (!waiter.resolve(new PooledBorrowed<T>(this, entry)))
+                        release(entry);
+
+                    continue;
+                }
+
+                if (!reserve())
+                    break;
+
+                waiters.poll();
+                construct(waiter);
+            }
+
+            missed = WIP.addAndGet(this, -missed);
+
+            if (missed == 0)
+                return;
+        }
+    }
+
+    private Entry<T> pollIdle() {
+        Entry<T> entry;
+
+        while ((entry = idle.pollFirst()) != null) {
+            if (!entry.borrow())
+                continue;
+
+            // returned to the pool while reloading.
+            if (entry.generation != generation) {
+                entry.state = Entry.EVICTED;
+                destruct(entry);
+                continue;
+            }
+
+            return entry;
+        }
+
+        return null;
+    }
+
+    /**
+     * Reserve capacity for one more reference.
+     */
+    private boolean reserve() {
+        for (;;) {
+            final int current = allocated.get();
+
+            if (current >= size)
+                return false;
+
+            if (allocated.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Free capacity previously reserved for an entry of the given generation.
+     */
+    private void free(final Generation generation) {
+        generation.release();
+
+        if (allocated.decrementAndGet() == 0 && state.get() == ManagedState.STOPPED)
+            stopFuture.resolve(null);
+
+        if (!waiters.isEmpty())
+            drain();
+    }
+
+    private void construct(final ResolvableFuture<Borrowed<T>> future) {
+        final Generation generation = retainGeneration();
+        final AsyncFuture<T> constructor;
+
+        try {
+            constructor = setup.construct();
+        } catch (final Exception e) {
+            free(generation);
+            future.fail(e);
+            return;
+        }
+
+        constructor.on(new FutureDone<T>() {
+            @Override
+            public void resolved(final T result) throws Exception {
+                if (result == null) {
+                    free(generation);
+                    future.fail(new IllegalArgumentException("setup reference must no non-null"));
+                    return;
+                }
+
+                final Entry<T> entry = new Entry<T>(result, generation);
+
+                if (!future.resolve(new PooledBorrowed<T>(ConcurrentManagedPool.this, entry)))
+                    release(entry);
+            }
+
+            @Override
+            public void failed(final Throwable cause) throws Exception {
+                free(generation);
+                future.fail(cause);
+            }
+
+            @Override
+            public void cancelled() throws Exception {
+                free(generation);
+                future.cancel();
+            }
+        });
+    }
+
+    private void destructIdle() {
+        Entry<T> entry;
+
+        while ((entry = idle.pollFirst()) != null) {
+            if (entry.evict())
+                destruct(entry);
+        }
+    }
+
+    private void destruct(final Entry<T> entry) {
+        final AsyncFuture<Void> destructor;
+
+        try {
+            destructor = setup.destruct(entry.value);
+        } catch (final Exception e) {
+            free(entry.generation);
+            return;
+        }
+
+        destructor.on(new FutureFinished() {
+            @Override
+            public void finished() throws Exception {
+                free(entry.generation);
+            }
+        });
+    }
+
+    /**
+     * Count one more entry against the current generation.
+     *
+     * The generation is read again after counting, a generation that was replaced in between might already have been
+     * retired, so the entry is counted against the new one instead.
+     */
+    private Generation retainGeneration() {
+        while (true) {
+            final Generation g = generation;
+            g.retain();
+
+            if (generation == g)
+                return g;
+
+            g.release();
+        }
+    }
+
+    private void scheduleEviction() {
+        if (idleTimeoutNanos == 0)
+            return;
+
+        final Runnable evict = new Runnable() {
+            @Override
+            public void run() {
+                if (state.get() != ManagedState.STARTED)
+                    return;
+
+                evict(System.nanoTime());
+                scheduleEviction();
+            }
+        };
+
+        try {
+            evictTimeout = timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (executor == null) {
+                        evict.run();
+                        return;
+                    }
+
+                    try {
+                        executor.execute(evict);
+                    } catch (final RejectedExecutionException e) {
+                        // executor has been shut down, idle references are kept until the pool is stopped.
+                    }
+                }
+            }, idleTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (final IllegalStateException e) {
+            // timer has been stopped, idle references are kept until the pool is stopped.
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ManagedPool(%s, allocated=%d/%d, waiters=%b)", state, allocated.get(), size,
+                !waiters.isEmpty());
+    }
+
+    /**
+     * A pooled reference.
+     */
+    protected static class Entry<T> {
+        static final int BORROWED = 0;
+        static final int IDLE = 1;
+        static final int EVICTED = 2;
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Entry> STATE = AtomicIntegerFieldUpdater.newUpdater(
+                Entry.class, "state");
+
+        protected final T value;
+        protected final Generation generation;
+
+        protected volatile int state = BORROWED;
+        protected volatile long lastUsed;
+
+        protected Entry(final T value, final Generation generation) {
+            this.value = value;
+            this.generation = generation;
+        }
+
+        boolean borrow() {
+            return STATE.compareAndSet(this, IDLE, BORROWED);
+        }
+
+        boolean evict() {
+            return STATE.compareAndSet(this, IDLE, EVICTED);
+        }
+    }
+
+    /**
+     * The entries constructed between two reloads.
+     *
+     * Counts every entry that has been reserved and not yet destructed, plus one held by the pool until the generation
+     * is replaced. The retired future is resolved when the count reaches zero.
+     */
+    protected static class Generation {
+        private static final AtomicIntegerFieldUpdater<Generation> ENTRIES = AtomicIntegerFieldUpdater.newUpdater(
+                Generation.class, "entries");
+
+        protected final ResolvableFuture<Void> retired;
+
+        protected volatile int entries = 1;
+
+        protected Generation(final ResolvableFuture<Void> retired) {
+            this.retired = retired;
+        }
+
+        void retain() {
+            ENTRIES.incrementAndGet(this);
+        }
+
+        void release() {
+            if (ENTRIES.decrementAndGet(this) == 0)
+                retired.resolve(null);
+        }
+    }
+
+    /**
+     * An exclusively borrowed pooled reference.
+     */
+    protected static class PooledBorrowed<T> implements Borrowed<T>, FutureFinished {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<PooledBorrowed> RELEASED = AtomicIntegerFieldUpdater
+                .newUpdater(PooledBorrowed.class, "released");
+
+        private final ConcurrentManagedPool<T> pool;
+        private final Entry<T> entry;
+
+        protected volatile int released = 0;
+
+        protected PooledBorrowed(final ConcurrentManagedPool<T> pool, final Entry<T> entry) {
+            this.pool = pool;
+            this.entry = entry;
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+
+        @Override
+        public T get() {
+            return entry.value;
+        }
+
+        @Override
+        public void release() {
+            if (!RELEASED.compareAndSet(this, 0, 1))
+                return;
+
+            pool.release(entry);
+        }
+
+        @Override
+        public FutureFinished releasing() {
+            return this;
+        }
+
+        @Override
+        public void finished() throws Exception {
+            release();
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+
+        public boolean isReleased() {
+            return released != 0;
+        }
+    }
+}
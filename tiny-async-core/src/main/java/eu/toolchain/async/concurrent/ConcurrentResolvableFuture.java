@@ -1,17 +1,19 @@
 package eu.toolchain.async.concurrent;
 
-import java.util.ArrayList;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 import lombok.RequiredArgsConstructor;
 import eu.toolchain.async.AbstractImmediateAsyncFuture;
 import eu.toolchain.async.AsyncCaller;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ExecutorAsyncCaller;
 import eu.toolchain.async.FutureCancelled;
 import eu.toolchain.async.FutureDone;
 import eu.toolchain.async.FutureFailed;
@@ -49,26 +51,52 @@ import eu.toolchain.async.Transform;
 public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<T> implements ResolvableFuture<T> {
     // waiting for value.
     public static final int RUNNING = 0x0;
-    public static final int RESULT_UPDATING = 0x1;
 
-    /* valid end state, are required to be greater than RESULT_UPDATING, otherwise {@link isStateReady(int)} will fail. */
+    /* valid end states, the end state and its result are always published together, so there is no intermediate state
+     * between RUNNING and any of these. */
     public static final int RESOLVED = 0x10;
     public static final int FAILED = 0x11;
     public static final int CANCELLED = 0x12;
 
     /**
-     * The maximum number of spins allowed when busy-waiting.
+     * Sentinel returned by {@link #complete(Object)} when the future was already completed.
      */
-    private static final int MAX_SPINS = 10;
+    static final CB<?> COMPLETED = new CompletedCB<Object>();
 
-    private final Object $lock = new Object();
+    private static final Completion CANCELLED_COMPLETION = new Completion(CANCELLED, null);
+    private static final Completion NULL_RESULT = new Completion(RESOLVED, null);
 
-    private final S sync;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentResolvableFuture, Object> STATE = AtomicReferenceFieldUpdater
+            .newUpdater(ConcurrentResolvableFuture.class, Object.class, "state");
 
-    protected volatile ArrayList<CB<T>> callbacks = new ArrayList<CB<T>>();
+    /**
+     * The complete state of the future, this is one of the following.
+     *
+     * <ul>
+     * <li>{@code null}, the future is running and has no callbacks.</li>
+     * <li>An instance of {@link CB}, the future is running and this is the head of a stack of callbacks (and blocked
+     * threads), linked through {@link CB#next}.</li>
+     * <li>An instance of {@link Completion}, the future is completed with the given end state.</li>
+     * <li>Any other value, the future is resolved with the given value.</li>
+     * </ul>
+     */
+    protected volatile Object state = null;
 
     private final AsyncCaller caller;
 
+    /**
+     * If the caller is an {@link ExecutorAsyncCaller}, the executor and the caller that it delegates to. Callbacks are
+     * then submitted as tasks directly, instead of having the caller allocate a task for every invocation.
+     */
+    private final ExecutorService executor;
+    private final AsyncCaller executorCaller;
+
+    /**
+     * Maximum number of callbacks of a single completion to invoke from the same executor task.
+     */
+    private final int batchSize;
+
     /**
      * Setup a concurrent future that uses a custom caller implementation.
      *
@@ -81,25 +109,41 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
      * @param caller The caller implementation to use.
      */
     public ConcurrentResolvableFuture(final AsyncFramework async, final AsyncCaller caller) {
-        this(async, caller, new Sync());
-    }
-
-    protected ConcurrentResolvableFuture(final AsyncFramework async, final AsyncCaller caller, final S sync) {
         super(async);
         this.caller = caller;
-        this.sync = sync;
+
+        if (caller instanceof ExecutorAsyncCaller) {
+            final ExecutorAsyncCaller e = (ExecutorAsyncCaller) caller;
+            this.executor = e.executor();
+            this.executorCaller = e.caller();
+            this.batchSize = e.batchSize();
+        } else {
+            this.executor = null;
+            this.executorCaller = null;
+            this.batchSize = 1;
+        }
     }
 
     /* transition */
 
     @Override
     public boolean resolve(T result) {
-        if (!this.sync.complete(RESOLVED, result))
-            return false;
+        final Object completion;
+
+        if (result == null) {
+            completion = NULL_RESULT;
+        } else if (result instanceof CB || result instanceof Completion) {
+            completion = new Completion(RESOLVED, result);
+        } else {
+            completion = result;
+        }
 
-        final ArrayList<CB<T>> entries = takeAndClear();
+        final CB<T> entries = complete(completion);
 
-        for (final CB<T> c : entries)
+        if (entries == COMPLETED)
+            return false;
+
+        for (CB<T> c = submitBatched(entries, RESOLVED); c != null; c = c.next)
             c.resolved(result);
 
         return true;
@@ -107,12 +151,12 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public boolean fail(Throwable cause) {
-        if (!sync.complete(FAILED, cause))
-            return false;
+        final CB<T> entries = complete(new Completion(FAILED, cause));
 
-        final ArrayList<CB<T>> entries = takeAndClear();
+        if (entries == COMPLETED)
+            return false;
 
-        for (final CB<T> c : entries)
+        for (CB<T> c = submitBatched(entries, FAILED); c != null; c = c.next)
             c.failed(cause);
 
         return true;
@@ -125,12 +169,12 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        if (!sync.complete(CANCELLED))
-            return false;
+        final CB<T> entries = complete(CANCELLED_COMPLETION);
 
-        final ArrayList<CB<T>> entries = takeAndClear();
+        if (entries == COMPLETED)
+            return false;
 
-        for (final CB<T> c : entries)
+        for (CB<T> c = submitBatched(entries, CANCELLED); c != null; c = c.next)
             c.cancelled();
 
         return true;
@@ -140,16 +184,12 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public AsyncFuture<T> bind(AsyncFuture<?> other) {
-        int state = this.sync.state();
-
-        if (!isStateReady(state)) {
-            if (add(new AsyncFutureCB(other)))
-                return this;
+        final Object s = this.state;
 
-            state = sync.poll();
-        }
+        if (!isCompleted(s) && add(new AsyncFutureCB(other)))
+            return this;
 
-        if (state == CANCELLED)
+        if (stateOf(this.state) == CANCELLED)
             other.cancel();
 
         return this;
@@ -157,24 +197,24 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public AsyncFuture<T> on(final FutureDone<? super T> done) {
-        int state = this.sync.state();
+        Object s = this.state;
 
-        if (!isStateReady(state)) {
+        if (!isCompleted(s)) {
             if (add(new DoneCB(done)))
                 return this;
 
-            state = sync.poll();
+            s = this.state;
         }
 
+        final int state = stateOf(s);
+
         if (state == RESOLVED) {
-            @SuppressWarnings("unchecked")
-            final T result = (T) this.sync.result(state);
-            caller.resolve(done, result);
+            caller.resolve(done, this.<T> resultOf(s));
             return this;
         }
 
         if (state == FAILED) {
-            caller.fail(done, (Throwable) this.sync.result(state));
+            caller.fail(done, this.<Throwable> resultOf(s));
             return this;
         }
 
@@ -193,16 +233,12 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public AsyncFuture<T> on(FutureCancelled cancelled) {
-        int state = this.sync.state();
+        final Object s = this.state;
 
-        if (!isStateReady(state)) {
-            if (add(new CancelledCB(cancelled)))
-                return this;
-
-            state = sync.poll();
-        }
+        if (!isCompleted(s) && add(new CancelledCB(cancelled)))
+            return this;
 
-        if (state == CANCELLED)
+        if (stateOf(this.state) == CANCELLED)
             caller.cancel(cancelled);
 
         return this;
@@ -210,48 +246,45 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public AsyncFuture<T> on(FutureFinished finishable) {
-        int state = sync.state();
+        final Object s = this.state;
 
-        if (!isStateReady(state)) {
-            if (add(new FinishedCB(finishable)))
-                return this;
-        }
+        if (!isCompleted(s) && add(new FinishedCB(finishable)))
+            return this;
 
         caller.finish(finishable);
         return this;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public AsyncFuture<T> on(FutureResolved<? super T> resolved) {
-        int state = this.sync.state();
+        Object s = this.state;
 
-        if (!isStateReady(state)) {
+        if (!isCompleted(s)) {
             if (add(new ResolvedCB(resolved)))
                 return this;
 
-            state = sync.poll();
+            s = this.state;
         }
 
-        if (state == RESOLVED)
-            caller.resolve(resolved, (T) this.sync.result(state));
+        if (stateOf(s) == RESOLVED)
+            caller.resolve(resolved, this.<T> resultOf(s));
 
         return this;
     }
 
     @Override
     public AsyncFuture<T> on(FutureFailed failed) {
-        int state = this.sync.state();
+        Object s = this.state;
 
-        if (!isStateReady(state)) {
+        if (!isCompleted(s)) {
             if (add(new FailedCB(failed)))
                 return this;
 
-            state = sync.poll();
+            s = this.state;
         }
 
-        if (state == FAILED)
-            caller.fail(failed, (Throwable) this.sync.result(state));
+        if (stateOf(s) == FAILED)
+            caller.fail(failed, this.<Throwable> resultOf(s));
 
         return this;
     }
@@ -260,77 +293,79 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public boolean isDone() {
-        return isStateReady(sync.state());
+        return isCompleted(state);
     }
 
     @Override
     public boolean isResolved() {
-        return sync.state() == RESOLVED;
+        return stateOf(state) == RESOLVED;
     }
 
     @Override
     public boolean isFailed() {
-        return sync.state() == FAILED;
+        return stateOf(state) == FAILED;
     }
 
     @Override
     public boolean isCancelled() {
-        return sync.state() == CANCELLED;
+        return stateOf(state) == CANCELLED;
     }
 
     /* get result */
 
     @Override
     public Throwable cause() {
-        final int state = sync.state();
+        final Object s = state;
 
-        if (state != FAILED)
+        if (stateOf(s) != FAILED)
             throw new IllegalStateException("future is not in a failed state");
 
-        return (Throwable) sync.result(state);
+        return resultOf(s);
     }
 
     @Override
     public T get() throws InterruptedException, ExecutionException {
-        final int state = sync.state();
+        final Object s = state;
 
-        if (isStateReady(state))
-            return checkState(state);
+        if (isCompleted(s))
+            return checkState(s);
 
-        sync.acquire();
-        return checkState(sync.state());
+        return checkState(await(false, 0L));
     }
 
     @Override
     public T getNow() throws ExecutionException {
-        final int state = sync.state();
+        final Object s = state;
 
-        if (!isStateReady(state))
+        if (!isCompleted(s))
             throw new IllegalStateException("sync state is not ready");
 
-        return checkState(state);
+        return checkState(s);
     }
 
     @Override
     public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        final int state = sync.state();
+        final Object s = state;
 
-        if (isStateReady(state))
-            return checkState(state);
+        if (isCompleted(s))
+            return checkState(s);
 
-        if (!sync.acquire(unit.toNanos(timeout)))
+        final Object result = await(true, unit.toNanos(timeout));
+
+        if (!isCompleted(result))
             throw new TimeoutException();
 
-        return checkState(sync.poll());
+        return checkState(result);
     }
 
-    @SuppressWarnings("unchecked")
-    private T checkState(int state) throws ExecutionException, CancellationException {
+    private T checkState(Object s) throws ExecutionException, CancellationException {
+        final int state = stateOf(s);
+
         switch (state) {
         case FAILED:
-            throw new ExecutionException((Throwable) this.sync.result(state));
+            throw new ExecutionException(this.<Throwable> resultOf(s));
         case RESOLVED:
-            return (T) this.sync.result(state);
+            return resultOf(s);
         case CANCELLED:
             throw new CancellationException();
         default:
@@ -342,7 +377,8 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public <C> AsyncFuture<C> transform(Transform<? super T, ? extends C> transform) {
-        final int state = sync.state();
+        final Object s = state;
+        final int state = stateOf(s);
 
         if (!isStateReady(state))
             return async.transform(this, transform);
@@ -352,19 +388,16 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
         if (state == CANCELLED)
             return async.cancelled();
 
-        if (state == FAILED) {
-            final Throwable e = (Throwable) sync.result(state);
-            return async.failed(e);
-        }
+        if (state == FAILED)
+            return async.failed(this.<Throwable> resultOf(s));
 
-        @SuppressWarnings("unchecked")
-        final T result = (T) sync.result(state);
-        return transformResolved(transform, result);
+        return transformResolved(transform, this.<T> resultOf(s));
     }
 
     @Override
     public <C> AsyncFuture<C> lazyTransform(final LazyTransform<? super T, C> transform) {
-        final int state = sync.state();
+        final Object s = state;
+        final int state = stateOf(s);
 
         if (!isStateReady(state))
             return async.transform(this, transform);
@@ -374,47 +407,45 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
         if (state == CANCELLED)
             return async.cancelled();
 
-        if (state == FAILED) {
-            final Throwable e = (Throwable) sync.result(state);
-            return async.failed(e);
-        }
+        if (state == FAILED)
+            return async.failed(this.<Throwable> resultOf(s));
 
-        @SuppressWarnings("unchecked")
-        final T result = (T) sync.result(state);
-        return lazyTransformResolved(transform, result);
+        return lazyTransformResolved(transform, this.<T> resultOf(s));
     }
 
     @Override
     public AsyncFuture<T> catchFailed(Transform<Throwable, ? extends T> transform) {
-        final int state = sync.state();
+        final Object s = state;
+        final int state = stateOf(s);
 
         if (!isStateReady(state))
             return async.error(this, transform);
 
         // shortcut
         if (state == FAILED)
-            return transformFailed(transform, (Throwable) sync.result(state));
+            return transformFailed(transform, this.<Throwable> resultOf(s));
 
         return this;
     }
 
     @Override
     public AsyncFuture<T> lazyCatchFailed(LazyTransform<Throwable, T> transform) {
-        final int state = sync.state();
+        final Object s = state;
+        final int state = stateOf(s);
 
         if (!isStateReady(state))
             return async.error(this, transform);
 
         // shortcut
         if (state == FAILED)
-            return lazyTransformFailed(transform, (Throwable) sync.result(state));
+            return lazyTransformFailed(transform, this.<Throwable> resultOf(s));
 
         return this;
     }
 
     @Override
     public AsyncFuture<T> catchCancelled(Transform<Void, ? extends T> transform) {
-        final int state = sync.state();
+        final int state = stateOf(this.state);
 
         if (!isStateReady(state))
             return async.cancelled(this, transform);
@@ -429,7 +460,7 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
 
     @Override
     public AsyncFuture<T> lazyCatchCancelled(LazyTransform<Void, T> transform) {
-        final int state = sync.state();
+        final int state = stateOf(this.state);
 
         if (!isStateReady(state))
             return async.cancelled(this, transform);
@@ -442,323 +473,532 @@ public class ConcurrentResolvableFuture<T> extends AbstractImmediateAsyncFuture<
         return this;
     }
 
+    @Override
+    public AsyncFuture<T> timeout(long duration, TimeUnit unit) {
+        if (isCompleted(state))
+            return this;
+
+        return async.timeout(this, duration, unit);
+    }
+
     /**
-     * Take and reset all callbacks.
+     * Attempt to move the future into the given completion, and take all callbacks.
+     *
+     * Publishing the completion and taking the callbacks is a single atomic operation.
+     *
+     * @param completion The completion to set.
+     * @return The callbacks in the order they were added, linked through {@link CB#next}. Or {@link #COMPLETED} if the
+     *         future was already completed.
      */
-    private ArrayList<CB<T>> takeAndClear() {
-        final ArrayList<CB<T>> entries;
+    @SuppressWarnings("unchecked")
+    private CB<T> complete(final Object completion) {
+        Object s;
+
+        do {
+            s = state;
+
+            if (isCompleted(s))
+                return (CB<T>) COMPLETED;
+        } while (!STATE.compareAndSet(this, s, completion));
 
-        synchronized ($lock) {
-            entries = callbacks;
-            callbacks = null;
+        // reverse the stack to invoke callbacks in the order they were added.
+        CB<T> head = (CB<T>) s;
+        CB<T> entries = null;
+
+        while (head != null) {
+            final CB<T> next = head.next;
+            head.next = entries;
+            entries = head;
+            head = next;
         }
 
         return entries;
     }
 
-    public static boolean isStateReady(int state) {
-        return state > RESULT_UPDATING;
+    /**
+     * Block the current thread until this future is completed.
+     *
+     * @param timed If the wait is timed.
+     * @param nanos The number of nanoseconds to wait, if timed.
+     * @return The state of the future, which is not completed if the wait timed out.
+     * @throws InterruptedException if the current thread was interrupted while waiting.
+     */
+    private Object await(final boolean timed, long nanos) throws InterruptedException {
+        final Waiter<T> waiter = new Waiter<T>(Thread.currentThread());
+
+        if (!add(waiter))
+            return state;
+
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+
+        Object s;
+
+        while (!isCompleted(s = state)) {
+            if (Thread.interrupted()) {
+                abandon(waiter);
+                throw new InterruptedException();
+            }
+
+            if (!timed) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            nanos = deadline - System.nanoTime();
+
+            if (nanos <= 0L) {
+                abandon(waiter);
+                return s;
+            }
+
+            LockSupport.parkNanos(this, nanos);
+        }
+
+        return s;
     }
 
-    public static boolean isStateCancelled(int state) {
-        return state == CANCELLED;
+    /**
+     * Abandon a waiter that timed out or was interrupted.
+     *
+     * The waiter is unlinked right away if it is still on top of the stack, otherwise it is skipped by the next
+     * {@link #add(CB)} that finds it on top.
+     *
+     * @param waiter Waiter to abandon.
+     */
+    private void abandon(final Waiter<T> waiter) {
+        waiter.thread = null;
+        STATE.compareAndSet(this, waiter, waiter.next);
     }
 
     /**
      * Attempt to add an event listener to the list of listeners.
      *
-     * This implementation uses a spin-lock, where the loop copies the entire list of listeners.
+     * This implementation pushes the entry on top of a lock-free stack, which will fail if the future has been
+     * completed. Abandoned waiters on top of the stack are unlinked by the same push, which only modifies the entry
+     * being published.
      *
-     * @param type Type of callback to be queued up.
-     * @param callback Callback to be queued up.
+     * @param entry Callback to be queued up.
      * @return {@code true} if a task has been queued up, {@code false} otherwise.
      */
+    @SuppressWarnings("unchecked")
     private boolean add(CB<T> entry) {
-        synchronized ($lock) {
-            if (callbacks == null)
+        while (true) {
+            final Object s = state;
+
+            if (isCompleted(s))
                 return false;
 
-            callbacks.add(entry);
+            entry.next = skipAbandoned((CB<T>) s, s);
+
+            if (STATE.compareAndSet(this, s, entry))
+                return true;
         }
+    }
 
+    /**
+     * Skip past any abandoned waiters on top of the stack.
+     *
+     * Stops early if the state changes, since the completing thread is then free to relink the stack. The push that
+     * follows fails in that case, discarding whatever was found.
+     *
+     * @param head Head of the stack.
+     * @param s State that the head was read from.
+     * @return The first callback that is not an abandoned waiter.
+     */
+    private CB<T> skipAbandoned(CB<T> head, final Object s) {
+        while (head instanceof Waiter && ((Waiter<T>) head).thread == null && state == s)
+            head = head.next;
+
+        return head;
+    }
+
+    /**
+     * Submit the given callback to the executor of the caller, if it has one.
+     *
+     * @param callback Callback to submit, which invokes {@link #executorCaller} when run.
+     * @return {@code true} if the callback was submitted, {@code false} if it should be invoked through the caller.
+     */
+    private boolean submit(final Runnable callback) {
+        if (executor == null)
+            return false;
+
+        executor.execute(callback);
         return true;
     }
 
-    private static interface CB<T> {
-        void resolved(T result);
+    /**
+     * Submit all callbacks that are interested in the given end state to the executor of the caller, at most
+     * {@link #batchSize} callbacks per task.
+     *
+     * Callbacks which are not invoked through the caller (like blocked threads) are left for the completing thread.
+     *
+     * @param entries The callbacks taken from the completed future.
+     * @param state The end state of the future.
+     * @return The callbacks that should still be invoked by the completing thread.
+     */
+    @SuppressWarnings("unchecked")
+    private CB<T> submitBatched(final CB<T> entries, final int state) {
+        if (batchSize == 1)
+            return entries;
+
+        CB<T> rest = null;
+        CB<T> restTail = null;
+
+        CB<T> first = null;
+        CB<T> last = null;
+        int size = 0;
+
+        CB<T> c = entries;
+
+        while (c != null) {
+            final CB<T> next = c.next;
+            c.next = null;
 
-        void failed(Throwable cause);
+            if (!(c instanceof ConcurrentResolvableFuture.TaskCB)) {
+                if (rest == null) {
+                    rest = c;
+                } else {
+                    restTail.next = c;
+                }
+
+                restTail = c;
+            } else if (((TaskCB) c).accepts(state)) {
+                if (first == null) {
+                    first = c;
+                } else {
+                    last.next = c;
+                }
+
+                last = c;
 
-        void cancelled();
+                if (++size == batchSize) {
+                    executor.execute(new Batch(first, size));
+                    first = null;
+                    size = 0;
+                }
+            }
+
+            c = next;
+        }
+
+        if (first != null)
+            executor.execute(new Batch(first, size));
+
+        return rest;
+    }
+
+    public static boolean isStateReady(int state) {
+        return state >= RESOLVED;
+    }
+
+    public static boolean isStateCancelled(int state) {
+        return state == CANCELLED;
+    }
+
+    static boolean isCompleted(Object s) {
+        return s != null && !(s instanceof CB);
+    }
+
+    static int stateOf(Object s) {
+        if (s == null || s instanceof CB)
+            return RUNNING;
+
+        if (s instanceof Completion)
+            return ((Completion) s).state;
+
+        return RESOLVED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R resultOf(Object s) {
+        if (s instanceof Completion)
+            return (R) ((Completion) s).value;
+
+        return (R) s;
     }
 
     @RequiredArgsConstructor
-    protected class AsyncFutureCB implements CB<T> {
-        private final AsyncFuture<?> other;
+    static final class Completion {
+        final int state;
+        final Object value;
+    }
 
+    abstract static class CB<T> {
+        /**
+         * Next callback in the stack, only modified before the callback has been published, or by the completing
+         * thread.
+         */
+        CB<T> next;
+
+        abstract void resolved(T result);
+
+        abstract void failed(Throwable cause);
+
+        abstract void cancelled();
+    }
+
+    private static final class CompletedCB<T> extends CB<T> {
         @Override
-        public void resolved(T result) {
+        void resolved(T result) {
         }
 
         @Override
-        public void failed(Throwable cause) {
+        void failed(Throwable cause) {
         }
 
         @Override
-        public void cancelled() {
-            other.cancel();
+        void cancelled() {
         }
     }
 
+    /**
+     * A task running a chunk of callbacks from the same completion, linked through {@link CB#next}.
+     */
     @RequiredArgsConstructor
-    protected class DoneCB implements CB<T> {
-        private final FutureDone<? super T> callback;
+    static final class Batch implements Runnable {
+        private final CB<?> first;
+        private final int size;
 
         @Override
-        public void resolved(T result) {
-            caller.resolve(callback, result);
-        }
+        public void run() {
+            CB<?> c = first;
 
-        @Override
-        public void failed(Throwable error) {
-            caller.fail(callback, error);
+            for (int i = 0; i < size; i++) {
+                final CB<?> next = c.next;
+                ((Runnable) c).run();
+                c = next;
+            }
         }
+    }
 
-        @Override
-        public void cancelled() {
-            caller.cancel(callback);
-        }
+    /**
+     * A callback that invokes a handle through the caller, and which can be submitted to the executor of the caller as
+     * is.
+     */
+    protected abstract class TaskCB extends CB<T> implements Runnable {
+        /**
+         * @param state The end state of the future.
+         * @return {@code true} if this callback invokes its handle for the given end state.
+         */
+        abstract boolean accepts(int state);
     }
 
-    @RequiredArgsConstructor
-    protected class FailedCB implements CB<T> {
-        private final FutureFailed callback;
+    /**
+     * A thread blocked in one of the get methods.
+     */
+    static final class Waiter<T> extends CB<T> {
+        volatile Thread thread;
+
+        Waiter(final Thread thread) {
+            this.thread = thread;
+        }
 
         @Override
-        public void resolved(T result) {
+        void resolved(T result) {
+            wakeup();
         }
 
         @Override
-        public void failed(Throwable cause) {
-            caller.fail(callback, cause);
+        void failed(Throwable cause) {
+            wakeup();
         }
 
         @Override
-        public void cancelled() {
+        void cancelled() {
+            wakeup();
+        }
+
+        private void wakeup() {
+            final Thread t = thread;
+
+            if (t == null)
+                return;
+
+            thread = null;
+            LockSupport.unpark(t);
         }
     }
 
     @RequiredArgsConstructor
-    protected class ResolvedCB implements CB<T> {
-        private final FutureResolved<? super T> callback;
+    protected class AsyncFutureCB extends CB<T> {
+        private final AsyncFuture<?> other;
 
         @Override
-        public void resolved(T result) {
-            caller.resolve(callback, result);
+        void resolved(T result) {
         }
 
         @Override
-        public void failed(Throwable error) {
+        void failed(Throwable cause) {
         }
 
         @Override
-        public void cancelled() {
+        void cancelled() {
+            other.cancel();
         }
     }
 
     @RequiredArgsConstructor
-    protected class FinishedCB implements CB<T> {
-        private final FutureFinished callback;
+    protected class DoneCB extends TaskCB {
+        private final FutureDone<? super T> callback;
 
         @Override
-        public void resolved(T result) {
-            caller.finish(callback);
+        void resolved(T result) {
+            if (!submit(this))
+                caller.resolve(callback, result);
         }
 
         @Override
-        public void failed(Throwable error) {
-            caller.finish(callback);
+        void failed(Throwable error) {
+            if (!submit(this))
+                caller.fail(callback, error);
         }
 
         @Override
-        public void cancelled() {
-            caller.finish(callback);
+        void cancelled() {
+            if (!submit(this))
+                caller.cancel(callback);
+        }
+
+        @Override
+        boolean accepts(int state) {
+            return true;
+        }
+
+        @Override
+        public void run() {
+            final Object s = state;
+
+            switch (stateOf(s)) {
+            case RESOLVED:
+                executorCaller.resolve(callback, ConcurrentResolvableFuture.this.<T> resultOf(s));
+                break;
+            case FAILED:
+                executorCaller.fail(callback, ConcurrentResolvableFuture.this.<Throwable> resultOf(s));
+                break;
+            default:
+                executorCaller.cancel(callback);
+                break;
+            }
         }
     }
 
     @RequiredArgsConstructor
-    protected class CancelledCB implements CB<T> {
-        private final FutureCancelled callback;
+    protected class FailedCB extends TaskCB {
+        private final FutureFailed callback;
 
         @Override
-        public void resolved(T result) {
+        void resolved(T result) {
         }
 
         @Override
-        public void failed(Throwable error) {
+        void failed(Throwable cause) {
+            if (!submit(this))
+                caller.fail(callback, cause);
         }
 
         @Override
-        public void cancelled() {
-            caller.cancel(callback);
+        void cancelled() {
         }
-    }
 
-    protected interface S {
-        /**
-         * Get the current state.
-         *
-         * This must be an atomic operation.
-         *
-         * @return The current state of the synchronizer.
-         */
-        public int state();
-
-        /**
-         * Poll for the current state, this is guaranteed to never return
-         * {@link ConcurrentResolvableFuture#RESULT_UPDATING}.
-         *
-         * @return The current state of the synchronizer. Never {@link ConcurrentResolvableFuture#RESULT_UPDATING}.
-         */
-        public int poll();
-
-        /**
-         * Acquire the shared lock on this synchronizer.
-         *
-         * Will block until the shared lock has been acquired.
-         * 
-         * @throws InterruptedException if process is interrupted before the state change can be acquired.
-         */
-        public void acquire() throws InterruptedException;
-
-        /**
-         * Acquire the shared lock on this synchronizer.
-         *
-         * Will block for {@code nanos} nanoseconds until the shared lock has been acquired.
-         *
-         * @param nanos Number of nanoseconds to wait for the state change to be acquired.
-         * @throws InterruptedException if process is interrupted before the state change can be acquired.
-         * @return {@code true} if the lock was acquired, {@code false} otherwise.
-         */
-        public boolean acquire(long nanos) throws InterruptedException;
-
-        /**
-         * Move the synchronizer state to the given end state.
-         *
-         * @param state The end state to move the synchronizer into.
-         * @param result The result to associate with the end state, if not {@code null} will cause the synchronizer to
-         *            go into an intermediate {@code RESULT_UPDATING} state that has to be accounted for. Use
-         *            {@link #poll()} to avoid this.
-         * @return {@code true} if the given transition is valid and happened, {@code false} otherwise}.
-         */
-        public boolean complete(int state, Object result);
-
-        /**
-         * Same as {@code #complete(int, Object)} but with a null result.
-         *
-         * @param state The end state to move the synchronizer into.
-         * @return {@code true} if the given transition is valid and happened, {@code false} otherwise}.
-         * @see #complete(int, Object)
-         */
-        public boolean complete(int state);
+        @Override
+        boolean accepts(int state) {
+            return state == FAILED;
+        }
 
-        /**
-         * Fetch the result of the synchronizer.
-         *
-         * @param state The state that you expect the synchronizer to currently be in.
-         * @return The associated result, or {@code null} if there are none (e.g. state is {@code CANCELLED}).
-         */
-        public Object result(int state);
+        @Override
+        public void run() {
+            executorCaller.fail(callback, ConcurrentResolvableFuture.this.<Throwable> resultOf(state));
+        }
     }
 
-    private static class Sync extends AbstractQueuedSynchronizer implements S {
-        private static final long serialVersionUID = -5044031197562766649L;
+    @RequiredArgsConstructor
+    protected class ResolvedCB extends TaskCB {
+        private final FutureResolved<? super T> callback;
 
-        private Object result;
+        @Override
+        void resolved(T result) {
+            if (!submit(this))
+                caller.resolve(callback, result);
+        }
 
         @Override
-        protected int tryAcquireShared(int ignored) {
-            return getState() >= RESOLVED ? 1 : -1;
+        void failed(Throwable error) {
         }
 
         @Override
-        protected boolean tryReleaseShared(int state) {
-            setState(state);
-            return true;
+        void cancelled() {
         }
 
         @Override
-        public boolean complete(int state) {
-            if (!compareAndSetState(RUNNING, state))
-                return false;
+        boolean accepts(int state) {
+            return state == RESOLVED;
+        }
 
-            releaseShared(state);
-            return true;
+        @Override
+        public void run() {
+            executorCaller.resolve(callback, ConcurrentResolvableFuture.this.<T> resultOf(state));
         }
+    }
+
+    @RequiredArgsConstructor
+    protected class FinishedCB extends TaskCB {
+        private final FutureFinished callback;
 
-        /**
-         * Complete and provide a state, and a result to the syncer.
-         *
-         * @param state State to set.
-         * @param result Result to provide.
-         * @return {@code true} if the result was successfully provided, {@code false} otherwise.
-         */
         @Override
-        public boolean complete(int state, Object result) {
-            if (!compareAndSetState(RUNNING, RESULT_UPDATING))
-                return false;
+        void resolved(T result) {
+            if (!submit(this))
+                caller.finish(callback);
+        }
 
-            this.result = result;
-            releaseShared(state);
-            return true;
+        @Override
+        void failed(Throwable error) {
+            if (!submit(this))
+                caller.finish(callback);
         }
 
         @Override
-        public boolean acquire(long nanos) throws InterruptedException {
-            if (!tryAcquireSharedNanos(-1, nanos))
-                return false;
+        void cancelled() {
+            if (!submit(this))
+                caller.finish(callback);
+        }
 
+        @Override
+        boolean accepts(int state) {
             return true;
         }
 
         @Override
-        public void acquire() throws InterruptedException {
-            acquireSharedInterruptibly(-1);
+        public void run() {
+            executorCaller.finish(callback);
         }
+    }
+
+    @RequiredArgsConstructor
+    protected class CancelledCB extends TaskCB {
+        private final FutureCancelled callback;
 
-        /**
-         * Fetch state without spinning, useful for just 'taking a look' without guaranteeing that a value has been set.
-         */
         @Override
-        public int state() {
-            return getState();
+        void resolved(T result) {
         }
 
-        /**
-         * Take the current state, and assert that a result has been set, if applicable.
-         */
         @Override
-        public int poll() {
-            // spin if the current state is changing.
-            int s;
-            int spins = 0;
-
-            while ((s = getState()) == RESULT_UPDATING) {
-                if (spins++ > MAX_SPINS) {
-                    Thread.yield();
-                    spins = 0;
-                }
-            }
+        void failed(Throwable error) {
+        }
 
-            return s;
+        @Override
+        void cancelled() {
+            if (!submit(this))
+                caller.cancel(callback);
         }
 
         @Override
-        public Object result(int state) {
-            if (!isStateReady(state))
-                throw new IllegalStateException("given state is not a valid end-state");
+        boolean accepts(int state) {
+            return state == CANCELLED;
+        }
 
-            return result;
+        @Override
+        public void run() {
+            executorCaller.cancel(callback);
         }
     }
 }
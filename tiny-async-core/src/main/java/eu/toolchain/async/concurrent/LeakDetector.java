@@ -0,0 +1,100 @@
+package eu.toolchain.async.concurrent;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import eu.toolchain.async.AsyncCaller;
+import eu.toolchain.async.AsyncFramework;
+
+/**
+ * Sampled leak detection for borrowed references, using phantom references instead of finalization.
+ *
+ * <p>
+ * Only one in every {@code sampling} borrows are tracked, the rest pay for a single random number. Tracked objects that
+ * are garbage collected without having been closed are reported through
+ * {@link AsyncCaller#referenceLeaked(Object, StackTraceElement[])}.
+ * </p>
+ *
+ * <p>
+ * Collected objects are reported when the next tracked object is created, no background thread is involved.
+ * </p>
+ */
+final class LeakDetector {
+    private final int sampling;
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    // keeps trackers reachable until they are either closed or reported.
+    private final Set<Tracker> live = Collections.newSetFromMap(new ConcurrentHashMap<Tracker, Boolean>());
+
+    LeakDetector(final int sampling) {
+        if (sampling < 0)
+            throw new IllegalArgumentException("sampling must be non-negative");
+
+        this.sampling = sampling;
+    }
+
+    /**
+     * Possibly track the given object for leaks.
+     *
+     * @param object The object to track, the leak is reported if this object is collected without the tracker being
+     *            closed.
+     * @param async Framework whose caller the leak is reported to.
+     * @param reference The reference to report as leaked.
+     * @param trace The captured stack to report as leaked, see {@link LeaseTraces#capture()}.
+     * @return A tracker that must be closed when the object is released, or {@code null} if the object was not sampled.
+     */
+    Tracker track(final Object object, final AsyncFramework async, final Object reference, final Throwable trace) {
+        if (sampling == 0)
+            return null;
+
+        if (sampling > 1 && ThreadLocalRandom.current().nextInt(sampling) != 0)
+            return null;
+
+        poll();
+
+        final Tracker tracker = new Tracker(object, queue, async.caller(), reference, trace);
+        live.add(tracker);
+        return tracker;
+    }
+
+    /**
+     * Report all tracked objects that have been collected without being closed.
+     */
+    void poll() {
+        Tracker tracker;
+
+        while ((tracker = (Tracker) queue.poll()) != null) {
+            if (!live.remove(tracker))
+                continue;
+
+            tracker.caller.referenceLeaked(tracker.reference, LeaseTraces.stack(tracker.trace));
+        }
+    }
+
+    final class Tracker extends PhantomReference<Object> {
+        private final AsyncCaller caller;
+        private final Object reference;
+        private final Throwable trace;
+
+        Tracker(final Object object, final ReferenceQueue<Object> queue, final AsyncCaller caller,
+                final Object reference, final Throwable trace) {
+            super(object, queue);
+            this.caller = caller;
+            this.reference = reference;
+            this.trace = trace;
+        }
+
+        /**
+         * Stop tracking, the object has been properly released.
+         */
+        void close() {
+            live.remove(this);
+            clear();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package eu.toolchain.async.concurrent;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import eu.toolchain.async.Managed;
+
+/**
+ * Traces outstanding borrowed references in thread-local buffers.
+ *
+ * <p>
+ * A borrowed reference is appended to the buffer of the thread borrowing it, without touching any shared state.
+ * Releasing clears the slot of the borrowed reference, from whichever thread releases it, so that buffers of idle
+ * threads do not keep released references reachable. The buffers of all threads are only visited when the outstanding
+ * references are requested, which is expected to be rare.
+ * </p>
+ *
+ * <p>
+ * Buffers are registered once per thread. Buffers of threads that are gone and left nothing outstanding are pruned
+ * whenever the number of registered buffers has doubled since the last time, keeping the registry proportional to the
+ * number of live threads even with short-lived threads.
+ * </p>
+ *
+ * <p>
+ * Stacks are captured as a {@link Throwable}, deferring the cost of building the stack trace elements until they are
+ * requested, at which point they are bounded to a maximum depth.
+ * </p>
+ */
+final class LeaseTraces {
+    static final int DEFAULT_STACK_DEPTH = 16;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int PRUNE_THRESHOLD = 64;
+
+    private static final StackTraceElement[] EMPTY_STACK = new StackTraceElement[0];
+
+    private static final int STACK_DEPTH = ConcurrentManaged.intProperty(Managed.STACK_DEPTH, DEFAULT_STACK_DEPTH);
+
+    private final ConcurrentLinkedQueue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger registered = new AtomicInteger();
+
+    private volatile int pruneAt = PRUNE_THRESHOLD;
+
+    private final ThreadLocal<Buffer> local = new ThreadLocal<Buffer>() {
+        @Override
+        protected Buffer initialValue() {
+            final Buffer buffer = new Buffer(Thread.currentThread());
+            buffers.add(buffer);
+
+            if (registered.incrementAndGet() >= pruneAt)
+                prune();
+
+            return buffer;
+        }
+    };
+
+    /**
+     * Trace the given borrowed reference in the buffer of the current thread.
+     */
+    void add(final ConcurrentManaged.ValidBorrowed<?> borrowed) {
+        local.get().add(borrowed);
+    }
+
+    /**
+     * The buffer of the current thread.
+     */
+    Buffer buffer() {
+        return local.get();
+    }
+
+    /**
+     * The number of registered buffers.
+     */
+    int registered() {
+        return registered.get();
+    }
+
+    /**
+     * Aggregate the outstanding borrowed references of all threads.
+     *
+     * Not an atomic snapshot, references borrowed or released while aggregating might or might not be included.
+     *
+     * @return All borrowed references which have not been released.
+     */
+    List<ConcurrentManaged.ValidBorrowed<?>> outstanding() {
+        final List<ConcurrentManaged.ValidBorrowed<?>> result = new ArrayList<>();
+        final Iterator<Buffer> it = buffers.iterator();
+
+        while (it.hasNext()) {
+            final Buffer buffer = it.next();
+            final int before = result.size();
+
+            buffer.collect(result);
+
+            // the thread is gone, and so is everything it had borrowed.
+            if (result.size() == before && !buffer.isOwnerAlive())
+                unregister(it, buffer);
+        }
+
+        return result;
+    }
+
+    /**
+     * Drop the buffers of threads that are gone and left nothing outstanding.
+     */
+    private void prune() {
+        final Iterator<Buffer> it = buffers.iterator();
+
+        while (it.hasNext()) {
+            final Buffer buffer = it.next();
+
+            if (!buffer.isOwnerAlive() && !buffer.hasOutstanding())
+                unregister(it, buffer);
+        }
+
+        pruneAt = Math.max(PRUNE_THRESHOLD, registered.get() * 2);
+    }
+
+    private void unregister(final Iterator<Buffer> it, final Buffer buffer) {
+        it.remove();
+
+        // both pruning and aggregating might come across the same buffer.
+        if (buffer.unregister())
+            registered.decrementAndGet();
+    }
+
+    /**
+     * Capture the stack of the current thread, to later be turned into stack trace elements by
+     * {@link #stack(Throwable)}.
+     *
+     * @return The captured stack.
+     */
+    static Throwable capture() {
+        return new Throwable();
+    }
+
+    /**
+     * Build the stack trace elements of a captured stack, bounded to the configured maximum depth.
+     *
+     * Leading frames from the framework are skipped, so that the stack starts at the caller borrowing the reference.
+     *
+     * @param trace The captured stack, may be {@code null}.
+     * @return The stack trace elements, empty if nothing was captured.
+     */
+    static StackTraceElement[] stack(final Throwable trace) {
+        if (trace == null)
+            return EMPTY_STACK;
+
+        final StackTraceElement[] stack = trace.getStackTrace();
+
+        int start = 0;
+
+        while (start < stack.length && isInternal(stack[start]))
+            start++;
+
+        return Arrays.copyOfRange(stack, start, Math.min(stack.length, start + STACK_DEPTH));
+    }
+
+    private static boolean isInternal(final StackTraceElement e) {
+        final String className = e.getClassName();
+        return className.equals(LeaseTraces.class.getName())
+                || className.startsWith(ConcurrentManaged.class.getName());
+    }
+
+    /**
+     * Outstanding borrowed references of a single thread, only appended to by that thread.
+     */
+    static final class Buffer {
+        private static final AtomicIntegerFieldUpdater<Buffer> UNREGISTERED = AtomicIntegerFieldUpdater.newUpdater(
+                Buffer.class, "unregistered");
+
+        private final WeakReference<Thread> owner;
+
+        // replaced instead of modified when compacted, so that readers always see a consistent array.
+        private volatile AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> entries = new AtomicReferenceArray<>(
+                INITIAL_CAPACITY);
+
+        // only accessed by the owning thread.
+        private int size = 0;
+
+        private volatile int unregistered = 0;
+
+        Buffer(final Thread owner) {
+            this.owner = new WeakReference<Thread>(owner);
+        }
+
+        void add(final ConcurrentManaged.ValidBorrowed<?> borrowed) {
+            AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> entries = this.entries;
+
+            if (size == entries.length())
+                entries = compact(entries);
+
+            borrowed.traced = this;
+            borrowed.slot = size;
+            entries.lazySet(size++, borrowed);
+        }
+
+        /**
+         * Clear the slot of a released borrowed reference, called from whichever thread released it.
+         *
+         * The reference must already be flagged as released. If this races with a compaction and misses the slot the
+         * reference was moved to, the compaction sees the flag when it sweeps the new array after publishing it.
+         */
+        void remove(final ConcurrentManaged.ValidBorrowed<?> borrowed) {
+            final AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> entries = this.entries;
+            entries.compareAndSet(borrowed.slot, borrowed, null);
+        }
+
+        void collect(final List<ConcurrentManaged.ValidBorrowed<?>> result) {
+            final AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> entries = this.entries;
+
+            for (int i = 0; i < entries.length(); i++) {
+                final ConcurrentManaged.ValidBorrowed<?> b = entries.get(i);
+
+                if (b != null && !b.isReleased())
+                    result.add(b);
+            }
+        }
+
+        int capacity() {
+            return entries.length();
+        }
+
+        /**
+         * The number of references kept reachable by this buffer, released or not.
+         */
+        int retained() {
+            final AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> entries = this.entries;
+
+            int retained = 0;
+
+            for (int i = 0; i < entries.length(); i++) {
+                if (entries.get(i) != null)
+                    retained++;
+            }
+
+            return retained;
+        }
+
+        boolean isOwnerAlive() {
+            final Thread thread = owner.get();
+            return thread != null && thread.isAlive();
+        }
+
+        boolean hasOutstanding() {
+            final AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> entries = this.entries;
+
+            for (int i = 0; i < entries.length(); i++) {
+                final ConcurrentManaged.ValidBorrowed<?> b = entries.get(i);
+
+                if (b != null && !b.isReleased())
+                    return true;
+            }
+
+            return false;
+        }
+
+        boolean unregister() {
+            return UNREGISTERED.compareAndSet(this, 0, 1);
+        }
+
+        /**
+         * Drop released entries into a new array, growing it if more than half of it is still outstanding.
+         *
+         * References released while copying might have cleared their slot in the old array only, so the new array is
+         * swept once more after it has been published. Any release that did not observe the new array has flagged its
+         * reference before that, and is seen by the sweep.
+         */
+        private AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> compact(
+                final AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> entries) {
+            int live = 0;
+
+            for (int i = 0; i < size; i++) {
+                final ConcurrentManaged.ValidBorrowed<?> b = entries.get(i);
+
+                if (b != null && !b.isReleased())
+                    live++;
+            }
+
+            final int capacity = live * 2 > entries.length() ? entries.length() * 2 : entries.length();
+            final AtomicReferenceArray<ConcurrentManaged.ValidBorrowed<?>> next = new AtomicReferenceArray<>(capacity);
+
+            int j = 0;
+
+            for (int i = 0; i < size; i++) {
+                final ConcurrentManaged.ValidBorrowed<?> b = entries.get(i);
+
+                if (b == null || b.isReleased())
+                    continue;
+
+                b.slot = j;
+                next.lazySet(j++, b);
+            }
+
+            this.size = j;
+            this.entries = next;
+
+            for (int i = 0; i < j; i++) {
+                final ConcurrentManaged.ValidBorrowed<?> b = next.get(i);
+
+                if (b != null && b.isReleased())
+                    next.compareAndSet(i, b, null);
+            }
+
+            return next;
+        }
+    }
+}
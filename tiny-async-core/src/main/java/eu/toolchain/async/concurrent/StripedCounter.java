@@ -0,0 +1,75 @@
+package eu.toolchain.async.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that is spread over a number of cache-line padded stripes, where each thread updates the stripe picked by
+ * its id.
+ *
+ * <p>
+ * Updates from different threads mostly touch different cache lines, which avoids the contention of a single shared
+ * counter. The trade-off is that reading the total requires visiting every stripe.
+ * </p>
+ *
+ * <p>
+ * A thread always updates the same stripe, but an increment and its corresponding decrement might happen on different
+ * threads. Individual stripes can therefore go negative, only the {@link #sum()} is meaningful.
+ * </p>
+ */
+final class StripedCounter {
+    /**
+     * Number of longs between two stripes, 128 bytes to also avoid adjacent cache-line prefetching.
+     */
+    private static final int PADDING = 16;
+
+    private static final int MAX_STRIPES = 64;
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+
+    StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    StripedCounter(final int parallelism) {
+        int size = 1;
+
+        while (size < parallelism * 2 && size < MAX_STRIPES)
+            size <<= 1;
+
+        this.stripes = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+    }
+
+    void increment() {
+        stripes.getAndIncrement(index());
+    }
+
+    void decrement() {
+        stripes.getAndDecrement(index());
+    }
+
+    /**
+     * Sum all stripes.
+     *
+     * The sum is not an atomic snapshot. It is exact once all concurrent updates have finished, and will never be lower
+     * than the true count as long as every increment is visible to the summing thread.
+     *
+     * @return The sum of all stripes.
+     */
+    long sum() {
+        long sum = 0;
+
+        for (int i = 0; i <= mask; i++)
+            sum += stripes.get(i * PADDING);
+
+        return sum;
+    }
+
+    private int index() {
+        final long id = Thread.currentThread().getId();
+        // spread sequential thread ids over the stripes.
+        final int hash = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+        return (hash & mask) * PADDING;
+    }
+}
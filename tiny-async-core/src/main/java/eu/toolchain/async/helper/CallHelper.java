@@ -0,0 +1,102 @@
+package eu.toolchain.async.helper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.FutureCancelled;
+import eu.toolchain.async.ResolvableFuture;
+
+/**
+ * Implementation of {@link AsyncFramework#call(Callable, ExecutorService, ResolvableFuture)}.
+ *
+ * The same instance is both the task submitted to the executor, and the listener that is notified when the future is
+ * cancelled.
+ *
+ * @param <T> The type of the future.
+ */
+public class CallHelper<T> implements Runnable, FutureCancelled {
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int INTERRUPTING = 2;
+    private static final int DONE = 3;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<CallHelper> STATE = AtomicIntegerFieldUpdater.newUpdater(
+            CallHelper.class, "state");
+
+    private final Callable<? extends T> callable;
+    private final ResolvableFuture<T> future;
+    private final boolean interruptOnCancel;
+
+    private volatile int state = NEW;
+
+    /**
+     * The thread running the callable, only read after observing the {@link #RUNNING} state.
+     */
+    private Thread runner;
+
+    public CallHelper(Callable<? extends T> callable, ResolvableFuture<T> future, boolean interruptOnCancel) {
+        this.callable = callable;
+        this.future = future;
+        this.interruptOnCancel = interruptOnCancel;
+    }
+
+    @Override
+    public void run() {
+        // future is already done, do not perform potentially expensive operation.
+        if (future.isDone())
+            return;
+
+        runner = Thread.currentThread();
+
+        if (!STATE.compareAndSet(this, NEW, RUNNING))
+            return;
+
+        T result = null;
+        Exception error = null;
+
+        try {
+            result = callable.call();
+        } catch (final Exception e) {
+            error = e;
+        }
+
+        if (!STATE.compareAndSet(this, RUNNING, DONE)) {
+            // wait for a concurrent cancel to finish interrupting this thread, and clear the interrupt so that it
+            // does not leak into the next task of the executor.
+            while (state == INTERRUPTING)
+                Thread.yield();
+
+            Thread.interrupted();
+        }
+
+        runner = null;
+
+        if (error != null) {
+            future.fail(error);
+            return;
+        }
+
+        future.resolve(result);
+    }
+
+    @Override
+    public void cancelled() throws Exception {
+        if (STATE.compareAndSet(this, NEW, DONE))
+            return;
+
+        if (!interruptOnCancel)
+            return;
+
+        if (!STATE.compareAndSet(this, RUNNING, INTERRUPTING))
+            return;
+
+        try {
+            runner.interrupt();
+        } finally {
+            state = DONE;
+        }
+    }
+}
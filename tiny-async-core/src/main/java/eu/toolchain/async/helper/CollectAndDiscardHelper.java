@@ -10,7 +10,10 @@ import eu.toolchain.async.ResolvableFuture;
 import eu.toolchain.async.TinyThrowableUtils;
 
 /**
- * Implementation of {@link AsyncFramework#collectAndDiscard(Collection)}.
+ * Implementation of {@link AsyncFramework#collectAndDiscard(Collection)}, and
+ * {@link AsyncFramework#collectAndDiscardFailFast(Collection)}.
+ *
+ * In fail-fast mode, the target is failed (or cancelled) as soon as the first future fails (or is cancelled).
  *
  * @author udoprog
  *
@@ -18,17 +21,29 @@ import eu.toolchain.async.TinyThrowableUtils;
  */
 public class CollectAndDiscardHelper<T> implements FutureDone<T> {
     private final ResolvableFuture<Void> target;
+    private final boolean failFast;
     private final AtomicInteger countdown;
     private final AtomicInteger cancelled = new AtomicInteger();
     private final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
 
     public CollectAndDiscardHelper(int size, ResolvableFuture<Void> target) {
+        this(size, target, false);
+    }
+
+    public CollectAndDiscardHelper(int size, ResolvableFuture<Void> target, boolean failFast) {
         this.target = target;
+        this.failFast = failFast;
         this.countdown = new AtomicInteger(size);
     }
 
     @Override
     public void failed(Throwable e) throws Exception {
+        if (failFast) {
+            target.fail(e);
+            check();
+            return;
+        }
+
         errors.add(e);
         check();
     }
@@ -40,11 +55,18 @@ public class CollectAndDiscardHelper<T> implements FutureDone<T> {
 
     @Override
     public void cancelled() throws Exception {
+        if (failFast)
+            target.cancel();
+
         cancelled.incrementAndGet();
         check();
     }
 
     private void done() {
+        // already failed, or cancelled by the first failure.
+        if (failFast && target.isDone())
+            return;
+
         if (!errors.isEmpty()) {
             target.fail(TinyThrowableUtils.buildCollectedException(errors));
             return;
@@ -1,7 +1,9 @@
 package eu.toolchain.async.helper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -13,17 +15,34 @@ import eu.toolchain.async.TinyAsync;
 import eu.toolchain.async.TinyThrowableUtils;
 
 /**
- * Helper class for {@link TinyAsync#collect(Collection, Collector)}
+ * Helper class for {@link TinyAsync#collect(Collection, Collector)}, and
+ * {@link TinyAsync#collectOrdered(Collection, Collector)}.
+ *
+ * The helper itself checks in results in the order they are completed. Listeners built with {@link #slot(int)} check
+ * in at a fixed position instead, which preserves the order of the input futures. A single helper must only be used in
+ * one of the two modes.
+ *
+ * In fail-fast mode, the target is failed (or cancelled) as soon as the first input future fails (or is cancelled),
+ * instead of when all input futures have completed.
  * 
  * @param <S> the source type being collected.
  * @param <T> the target type, the collected sources are being transformed into.
  */
 public class CollectHelper<S, T> implements FutureDone<S> {
+    private static final byte RESULT = 0x01;
+    private static final byte ERROR = 0x02;
+    private static final byte CANCEL = 0x03;
+
     private final Collector<S, T> collector;
     private final ResolvableFuture<? super T> target;
+    private final boolean failFast;
 
     private final int size;
-    private final Entry[] results;
+
+    /* the value of every completed future and its type, at the position it checked in at */
+    private final Object[] values;
+    private final byte[] types;
+
     private final AtomicInteger countdown;
 
     /* maintain position separate since the is a potential race condition between getting the current position and
@@ -31,61 +50,102 @@ public class CollectHelper<S, T> implements FutureDone<S> {
     private final AtomicInteger position = new AtomicInteger();
 
     public CollectHelper(int size, Collector<S, T> collector, ResolvableFuture<? super T> target) {
+        this(size, collector, target, false);
+    }
+
+    public CollectHelper(int size, Collector<S, T> collector, ResolvableFuture<? super T> target, boolean failFast) {
         if (size <= 0)
             throw new IllegalArgumentException("size");
 
         this.size = size;
         this.collector = collector;
         this.target = target;
-        this.results = entryArray(size);
+        this.failFast = failFast;
+        this.values = new Object[size];
+        this.types = new byte[size];
         this.countdown = new AtomicInteger(size);
     }
 
-    private Entry[] entryArray(int size) {
-        final Entry[] entries = new Entry[size];
-
-        for (int i = 0; i < size; i++)
-            entries[i] = new Entry();
-
-        return entries;
-    }
-
     @Override
     public void failed(Throwable e) throws Exception {
-        add(position.getAndIncrement(), Entry.ERROR, e);
+        add(position.getAndIncrement(), ERROR, e);
     }
 
     @Override
     public void resolved(S result) throws Exception {
-        add(position.getAndIncrement(), Entry.RESULT, result);
+        add(position.getAndIncrement(), RESULT, result);
     }
 
     @Override
     public void cancelled() throws Exception {
-        add(position.getAndIncrement(), Entry.CANCEL, null);
+        add(position.getAndIncrement(), CANCEL, null);
+    }
+
+    /**
+     * Build a listener that checks in at the given position.
+     *
+     * @param index The position of the future being listened to.
+     * @return A listener for the future at the given position.
+     */
+    public FutureDone<S> slot(final int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index");
+
+        return new Slot(index);
     }
 
     /**
      * Checks in a call back. It also wraps up the group if all the callbacks have checked in.
      */
     private void add(final int p, final byte type, final Object value) {
-        // could technically wrap around, but that would be a minor issue.
-        final int c = countdown.decrementAndGet();
+        if (failFast) {
+            if (type == ERROR)
+                target.fail((Throwable) value);
+            else if (type == CANCEL)
+                target.cancel();
+        }
 
         if (p < size) {
-            final Entry e = results[p];
-            e.type = type;
-            e.value = value;
+            values[p] = value;
+            types[p] = type;
         }
 
-        if (c == 0) {
-            final Results<S> r = readResults();
-            done(r.results, r.errors, r.cancelled);
-        }
+        // the decrement publishes the entry written above to the thread that observes the countdown reaching zero.
+        // could technically wrap around, but that would be a minor issue.
+        if (countdown.decrementAndGet() != 0)
+            return;
+
+        done();
     }
 
-    private void done(Collection<S> results, Collection<Throwable> errors, int cancelled) {
-        if (!errors.isEmpty()) {
+    @SuppressWarnings("unchecked")
+    private void done() {
+        // already failed, or cancelled by the first failure.
+        if (failFast && target.isDone())
+            return;
+
+        List<Throwable> errors = null;
+        int cancelled = 0;
+
+        for (int i = 0; i < size; i++) {
+            switch (types[i]) {
+            case RESULT:
+                break;
+            case ERROR:
+                if (errors == null)
+                    errors = new ArrayList<>();
+
+                errors.add((Throwable) values[i]);
+                break;
+            case CANCEL:
+                cancelled++;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid entry type: " + types[i]);
+            }
+        }
+
+        if (errors != null) {
             target.fail(TinyThrowableUtils.buildCollectedException(errors));
             return;
         }
@@ -98,7 +158,8 @@ public class CollectHelper<S, T> implements FutureDone<S> {
         T result;
 
         try {
-            result = collector.collect(results);
+            // every entry is a result, hand them over as a view of the value array.
+            result = collector.collect(Collections.unmodifiableList(Arrays.asList((S[]) values)));
         } catch (final Exception error) {
             target.fail(error);
             return;
@@ -107,44 +168,26 @@ public class CollectHelper<S, T> implements FutureDone<S> {
         target.resolve(result);
     }
 
-    @SuppressWarnings("unchecked")
-    private Results<S> readResults() {
-        final List<S> results = new ArrayList<>();
-        final List<Throwable> errors = new ArrayList<>();
-        int cancelled = 0;
+    /**
+     * A listener that checks in at a fixed position, without touching the shared position.
+     */
+    @RequiredArgsConstructor
+    private class Slot implements FutureDone<S> {
+        private final int index;
 
-        for (final Entry e : this.results) {
-            switch (e.type) {
-            case Entry.ERROR:
-                errors.add((Throwable) e.value);
-                break;
-            case Entry.RESULT:
-                results.add((S) e.value);
-                break;
-            case Entry.CANCEL:
-                cancelled++;
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid entry type: " + e.type);
-            }
+        @Override
+        public void failed(Throwable e) throws Exception {
+            add(index, ERROR, e);
         }
 
-        return new Results<S>(results, errors, cancelled);
-    }
-
-    private static final class Entry {
-        private static final byte RESULT = 0x01;
-        private static final byte ERROR = 0x02;
-        private static final byte CANCEL = 0x03;
-
-        private byte type;
-        private Object value;
-    }
+        @Override
+        public void resolved(S result) throws Exception {
+            add(index, RESULT, result);
+        }
 
-    @RequiredArgsConstructor
-    private static class Results<T> {
-        private final List<T> results;
-        private final List<Throwable> errors;
-        private final int cancelled;
+        @Override
+        public void cancelled() throws Exception {
+            add(index, CANCEL, null);
+        }
     }
-}
\ No newline at end of file
+}
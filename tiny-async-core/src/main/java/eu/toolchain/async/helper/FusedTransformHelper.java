@@ -0,0 +1,206 @@
+package eu.toolchain.async.helper;
+
+import java.util.concurrent.ExecutionException;
+
+import lombok.RequiredArgsConstructor;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.AsyncPipeline;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.LazyTransform;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.Transform;
+import eu.toolchain.async.TransformException;
+
+/**
+ * Helper class for {@link AsyncPipeline}, applies all steps of a pipeline from a single listener.
+ *
+ * Every step behaves the same as the corresponding single-step helper (e.g. {@link ResolvedTransformHelper} for
+ * {@link #TRANSFORM}). Lazy steps that return an already completed future are applied without registering a listener.
+ */
+@RequiredArgsConstructor
+public class FusedTransformHelper implements FutureDone<Object> {
+    public static final byte TRANSFORM = 0x01;
+    public static final byte LAZY_TRANSFORM = 0x02;
+    public static final byte CATCH_FAILED = 0x03;
+    public static final byte LAZY_CATCH_FAILED = 0x04;
+    public static final byte CATCH_CANCELLED = 0x05;
+    public static final byte LAZY_CATCH_CANCELLED = 0x06;
+
+    private static final byte RESOLVED = 0x01;
+    private static final byte FAILED = 0x02;
+    private static final byte CANCELLED = 0x03;
+
+    /**
+     * The transforms of every step, the type of the step is the corresponding entry in {@link #types}.
+     */
+    private final Object[] transforms;
+    private final byte[] types;
+    private final int size;
+    private final ResolvableFuture<Object> target;
+
+    @Override
+    public void resolved(Object result) throws Exception {
+        run(0, RESOLVED, result);
+    }
+
+    @Override
+    public void failed(Throwable cause) throws Exception {
+        run(0, FAILED, cause);
+    }
+
+    @Override
+    public void cancelled() throws Exception {
+        run(0, CANCELLED, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void run(final int start, byte state, Object value) {
+        for (int i = start; i < size; i++) {
+            final Object t = transforms[i];
+            final AsyncFuture<?> next;
+
+            switch (types[i]) {
+            case TRANSFORM:
+                if (state != RESOLVED)
+                    continue;
+
+                try {
+                    value = ((Transform<Object, Object>) t).transform(value);
+                } catch (Exception e) {
+                    state = FAILED;
+                    value = new TransformException(e);
+                }
+
+                continue;
+            case CATCH_FAILED:
+                if (state != FAILED)
+                    continue;
+
+                try {
+                    value = ((Transform<Throwable, Object>) t).transform((Throwable) value);
+                    state = RESOLVED;
+                } catch (Exception e) {
+                    value = new TransformException(e);
+                }
+
+                continue;
+            case CATCH_CANCELLED:
+                if (state != CANCELLED)
+                    continue;
+
+                try {
+                    value = ((Transform<Void, Object>) t).transform(null);
+                    state = RESOLVED;
+                } catch (Exception e) {
+                    state = FAILED;
+                    value = new TransformException(e);
+                }
+
+                continue;
+            case LAZY_TRANSFORM:
+                if (state != RESOLVED)
+                    continue;
+
+                try {
+                    next = ((LazyTransform<Object, Object>) t).transform(value);
+                } catch (Exception e) {
+                    state = FAILED;
+                    value = e;
+                    continue;
+                }
+
+                break;
+            case LAZY_CATCH_FAILED:
+                if (state != FAILED)
+                    continue;
+
+                try {
+                    next = ((LazyTransform<Throwable, Object>) t).transform((Throwable) value);
+                } catch (Exception e) {
+                    final TransformException inner = new TransformException(e);
+                    inner.addSuppressed((Throwable) value);
+                    value = inner;
+                    continue;
+                }
+
+                break;
+            case LAZY_CATCH_CANCELLED:
+                if (state != CANCELLED)
+                    continue;
+
+                try {
+                    next = ((LazyTransform<Void, Object>) t).transform(null);
+                } catch (Exception e) {
+                    state = FAILED;
+                    value = new TransformException(e);
+                    continue;
+                }
+
+                break;
+            default:
+                throw new IllegalStateException("illegal step type: " + types[i]);
+            }
+
+            // continue asynchronously when the future of the lazy step is completed.
+            if (!next.isDone()) {
+                next.on(new Resume(i + 1));
+                return;
+            }
+
+            if (next.isResolved()) {
+                try {
+                    value = next.getNow();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("resolved future threw exception", e);
+                }
+
+                state = RESOLVED;
+                continue;
+            }
+
+            if (next.isFailed()) {
+                value = next.cause();
+                state = FAILED;
+                continue;
+            }
+
+            value = null;
+            state = CANCELLED;
+        }
+
+        switch (state) {
+        case RESOLVED:
+            target.resolve(value);
+            break;
+        case FAILED:
+            target.fail((Throwable) value);
+            break;
+        default:
+            target.cancel();
+            break;
+        }
+    }
+
+    /**
+     * Resumes the pipeline at the given step.
+     */
+    @RequiredArgsConstructor
+    private class Resume implements FutureDone<Object> {
+        private final int index;
+
+        @Override
+        public void resolved(Object result) throws Exception {
+            run(index, RESOLVED, result);
+        }
+
+        @Override
+        public void failed(Throwable cause) throws Exception {
+            run(index, FAILED, cause);
+        }
+
+        @Override
+        public void cancelled() throws Exception {
+            run(index, CANCELLED, null);
+        }
+    }
+}
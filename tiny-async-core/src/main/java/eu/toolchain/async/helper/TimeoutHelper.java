@@ -0,0 +1,90 @@
+package eu.toolchain.async.helper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.HashedWheelTimer;
+import eu.toolchain.async.ResolvableFuture;
+
+/**
+ * Implementation of {@link AsyncFramework#timeout(AsyncFuture, long, TimeUnit)}.
+ *
+ * Forwards the result of the source future to the target future, and cancels the timer entry when the source future
+ * finishes before it expires. When the timer entry expires, the target future is failed and the source future is
+ * cancelled.
+ *
+ * Expiry is handed off to the given executor if there is one, so that listeners of the target future are not run on
+ * the timer thread.
+ *
+ * @param <T> The type of the future.
+ */
+public class TimeoutHelper<T> implements Runnable, FutureDone<T> {
+    private final AsyncFuture<T> source;
+    private final ResolvableFuture<T> target;
+    private final Executor executor;
+    private final long duration;
+    private final TimeUnit unit;
+
+    private HashedWheelTimer.Timeout timeout;
+
+    public TimeoutHelper(AsyncFuture<T> source, ResolvableFuture<T> target, Executor executor, long duration,
+            TimeUnit unit) {
+        this.source = source;
+        this.target = target;
+        this.executor = executor;
+        this.duration = duration;
+        this.unit = unit;
+    }
+
+    /**
+     * Schedule this helper on the given timer, and register it to forward the result of the source future.
+     *
+     * @param timer Timer to schedule on.
+     */
+    public void schedule(HashedWheelTimer timer) {
+        timeout = timer.schedule(this, duration, unit);
+        source.on(this);
+    }
+
+    @Override
+    public void run() {
+        if (executor == null) {
+            expire();
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                expire();
+            }
+        });
+    }
+
+    @Override
+    public void resolved(T result) throws Exception {
+        timeout.cancel();
+        target.resolve(result);
+    }
+
+    @Override
+    public void failed(Throwable cause) throws Exception {
+        timeout.cancel();
+        target.fail(cause);
+    }
+
+    @Override
+    public void cancelled() throws Exception {
+        timeout.cancel();
+        target.cancel();
+    }
+
+    private void expire() {
+        if (target.fail(new TimeoutException("future did not complete within " + duration + " " + unit)))
+            source.cancel();
+    }
+}
@@ -161,4 +161,9 @@ public class ImmediateCancelledAsyncFuture<T> extends AbstractImmediateAsyncFutu
     public AsyncFuture<T> lazyCatchCancelled(LazyTransform<Void, T> transform) {
         return lazyTransformCancelled(transform);
     }
-}
\ No newline at end of file
+
+    @Override
+    public AsyncFuture<T> timeout(long duration, TimeUnit unit) {
+        return this;
+    }
+}
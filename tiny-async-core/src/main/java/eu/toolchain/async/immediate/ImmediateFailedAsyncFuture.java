@@ -163,4 +163,9 @@ public class ImmediateFailedAsyncFuture<T> extends AbstractImmediateAsyncFuture<
     public AsyncFuture<T> lazyCatchCancelled(LazyTransform<Void, T> transform) {
         return this;
     }
-}
\ No newline at end of file
+
+    @Override
+    public AsyncFuture<T> timeout(long duration, TimeUnit unit) {
+        return this;
+    }
+}
@@ -161,4 +161,9 @@ public class ImmediateResolvedAsyncFuture<T> extends AbstractImmediateAsyncFutur
     public AsyncFuture<T> lazyCatchCancelled(LazyTransform<Void, T> transform) {
         return this;
     }
-}
\ No newline at end of file
+
+    @Override
+    public AsyncFuture<T> timeout(long duration, TimeUnit unit) {
+        return this;
+    }
+}
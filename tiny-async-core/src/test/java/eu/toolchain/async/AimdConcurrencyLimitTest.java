@@ -0,0 +1,72 @@
+package eu.toolchain.async;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AimdConcurrencyLimitTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private AimdConcurrencyLimit limit(int initial, int min, int max) {
+        return new AimdConcurrencyLimit(initial, min, max, 10, TimeUnit.MILLISECONDS, 0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitialOutOfRange() {
+        limit(20, 1, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadBackoffRatio() {
+        new AimdConcurrencyLimit(1, 1, 10, 10, TimeUnit.MILLISECONDS, 1.0);
+    }
+
+    @Test
+    public void testAdditiveIncrease() {
+        final AimdConcurrencyLimit limit = limit(4, 1, 5);
+
+        for (int i = 0; i < 3; i++)
+            limit.sample(System.nanoTime(), FAST, false);
+
+        assertEquals(4, limit.limit());
+
+        limit.sample(System.nanoTime(), FAST, false);
+        assertEquals(5, limit.limit());
+
+        // capped at the maximum.
+        for (int i = 0; i < 10; i++)
+            limit.sample(System.nanoTime(), FAST, false);
+
+        assertEquals(5, limit.limit());
+    }
+
+    @Test
+    public void testMultiplicativeDecrease() {
+        final AimdConcurrencyLimit limit = limit(8, 3, 10);
+
+        limit.sample(System.nanoTime(), FAST, true);
+        assertEquals(4, limit.limit());
+
+        limit.sample(System.nanoTime(), SLOW, false);
+        assertEquals(3, limit.limit());
+
+        // capped at the minimum.
+        limit.sample(System.nanoTime(), SLOW, false);
+        assertEquals(3, limit.limit());
+    }
+
+    @Test
+    public void testIgnoreSamplesStartedBeforeDecrease() {
+        final long before = System.nanoTime();
+        final AimdConcurrencyLimit limit = limit(8, 1, 10);
+
+        limit.sample(System.nanoTime(), SLOW, false);
+        assertEquals(4, limit.limit());
+
+        limit.sample(before, SLOW, false);
+        assertEquals(4, limit.limit());
+    }
+}
@@ -1,22 +1,24 @@
 package eu.toolchain.async;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
@@ -25,7 +27,6 @@ import com.google.common.collect.ImmutableList;
 public class DelayedCollectCoordinatorTest {
     private AsyncCaller caller;
     private StreamCollector<Object, Object> collector;
-    private Semaphore mutex;
     private ResolvableFuture<Object> future;
     private Callable<AsyncFuture<Object>> callable;
     private Callable<AsyncFuture<Object>> callable2;
@@ -39,7 +40,6 @@ public class DelayedCollectCoordinatorTest {
     public void setup() throws Exception {
         caller = mock(AsyncCaller.class);
         collector = mock(StreamCollector.class);
-        mutex = mock(Semaphore.class);
         future = mock(ResolvableFuture.class);
         callable = mock(Callable.class);
         callable2 = mock(Callable.class);
@@ -51,12 +51,18 @@ public class DelayedCollectCoordinatorTest {
         when(callable2.call()).thenReturn(f2);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroParallelism() {
+        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of();
+        new DelayedCollectCoordinator<Object, Object>(caller, callables, collector, future, 0);
+    }
+
     @Test
     public void testCallFutureDoneMethods() throws Exception {
         final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of();
 
         final DelayedCollectCoordinator<Object, Object> coordinator = new DelayedCollectCoordinator<Object, Object>(
-                caller, callables, collector, mutex, future, 1);
+                caller, callables, collector, future, 1);
 
         final Object result = new Object();
         final Throwable cause = new Throwable();
@@ -65,7 +71,6 @@ public class DelayedCollectCoordinatorTest {
         coordinator.resolved(result);
         coordinator.failed(cause);
 
-        verify(mutex, times(3)).release();
         verify(caller).cancel(collector);
         verify(caller).resolve(collector, result);
         verify(caller).fail(collector, cause);
@@ -86,8 +91,6 @@ public class DelayedCollectCoordinatorTest {
         verify(f, never()).on(coordinator);
         verify(f2, never()).on(coordinator);
 
-        verify(mutex, times(callables.size() + PARALLELISM)).acquire();
-
         verify(collector).end(0, 0, 0);
 
         verify(future).on(any(FutureCancelled.class));
@@ -101,132 +104,202 @@ public class DelayedCollectCoordinatorTest {
     }
 
     @Test
-    public void testInterrupted() throws Exception {
-        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(callable);
-
-        final InterruptedException e = new InterruptedException();
-
-        doThrow(e).when(mutex).acquire();
+    public void testCancelled() throws Exception {
+        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(callable, callable);
 
         final DelayedCollectCoordinator<Object, Object> coordinator = setupCoordinator(callables);
 
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Exception {
+                Object[] args = invocation.getArguments();
+                final FutureCancelled cancel = (FutureCancelled) args[0];
+                cancel.cancelled();
+                return null;
+            }
+        }).when(future).on(any(FutureCancelled.class));
+
         coordinator.run();
 
+        verify(callable, never()).call();
         verify(f, never()).on(coordinator);
         verify(f2, never()).on(coordinator);
 
-        verify(collector, never()).end(any(Integer.class), any(Integer.class), any(Integer.class));
+        verify(collector).end(0, 0, 2);
 
         verify(future).on(any(FutureCancelled.class));
-        verify(future, never()).resolve(any());
-        verify(future).fail(e);
+        verify(future, never()).fail(any(Throwable.class));
+        verify(future).resolve(any());
         verify(future, never()).cancel();
 
-        verify(caller, never()).cancel(eq(collector));
+        verify(caller, times(2)).cancel(eq(collector));
         verify(caller, never()).resolve(eq(collector), any(Object.class));
         verify(caller, never()).fail(eq(collector), any(Throwable.class));
     }
 
     @Test
-    public void testInterruptedOnCancelWait() throws Exception {
+    public void testSuccessful() throws Exception {
         final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(callable);
 
         final DelayedCollectCoordinator<Object, Object> coordinator = setupCoordinator(callables);
 
-        final InterruptedException e = new InterruptedException();
-
-        doAnswer(new Answer<Void>() {
-            @Override
-            public Void answer(InvocationOnMock invocation) throws Exception {
-                Object[] args = invocation.getArguments();
-                final FutureCancelled cancel = (FutureCancelled) args[0];
-                cancel.cancelled();
-                return null;
-            }
-        }).when(future).on(any(FutureCancelled.class));
+        final Object reference = new Object();
+        final Object result = new Object();
 
-        doThrow(e).when(mutex).acquire();
+        when(collector.end(1, 0, 0)).thenReturn(reference);
 
         coordinator.run();
 
-        verify(f, never()).on(coordinator);
+        verify(f).on(coordinator);
         verify(f2, never()).on(coordinator);
-
         verify(collector, never()).end(any(Integer.class), any(Integer.class), any(Integer.class));
-        verify(mutex, times(callables.size())).acquire();
+
+        coordinator.resolved(result);
+
+        verify(collector).end(1, 0, 0);
 
         verify(future).on(any(FutureCancelled.class));
-        verify(future).fail(e);
-        verify(future, never()).resolve(any());
+        verify(future, never()).fail(any(Throwable.class));
+        verify(future).resolve(reference);
         verify(future, never()).cancel();
 
-        verify(caller, times(1)).cancel(eq(collector));
-        verify(caller, never()).resolve(eq(collector), any(Object.class));
+        verify(caller, never()).cancel(eq(collector));
+        verify(caller).resolve(collector, result);
         verify(caller, never()).fail(eq(collector), any(Throwable.class));
     }
 
+    /* Only as many callables as the parallelism allows should be started, the next one when a future completes. */
     @Test
-    public void testCancelled() throws Exception {
-        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(callable, callable);
+    public void testParallelism() throws Exception {
+        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(callable, callable2);
 
-        final DelayedCollectCoordinator<Object, Object> coordinator = setupCoordinator(callables);
+        final DelayedCollectCoordinator<Object, Object> coordinator = new DelayedCollectCoordinator<Object, Object>(
+                caller, callables, collector, future, 1);
+
+        final Object result = new Object();
+
+        coordinator.run();
+
+        verify(f).on(coordinator);
+        verify(callable2, never()).call();
+
+        coordinator.resolved(result);
+
+        verify(f2).on(coordinator);
+        verify(collector, never()).end(any(Integer.class), any(Integer.class), any(Integer.class));
+
+        coordinator.resolved(result);
+
+        verify(collector).end(2, 0, 0);
+    }
+
+    /* Futures completing on the thread that started them should not grow the stack. */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testImmediateCompletions() throws Exception {
+        final int size = 100000;
+        final List<Callable<AsyncFuture<Object>>> callables = new ArrayList<>();
+
+        for (int i = 0; i < size; i++)
+            callables.add(callable);
+
+        final Object result = new Object();
 
-        doNothing().when(mutex).acquire();
         doAnswer(new Answer<Void>() {
             @Override
             public Void answer(InvocationOnMock invocation) throws Exception {
-                Object[] args = invocation.getArguments();
-                final FutureCancelled cancel = (FutureCancelled) args[0];
-                cancel.cancelled();
+                ((FutureDone<Object>) invocation.getArguments()[0]).resolved(result);
                 return null;
             }
-        }).when(future).on(any(FutureCancelled.class));
+        }).when(f).on(any(FutureDone.class));
+
+        new DelayedCollectCoordinator<Object, Object>(caller, callables, collector, future, 1).run();
+
+        verify(collector).end(size, 0, 0);
+    }
+
+    /* An unbounded source should only be pulled from as permits free up, and be left alone when failed. */
+    @Test
+    public void testUnboundedIterator() throws Exception {
+        final AtomicInteger pulled = new AtomicInteger();
+
+        final Iterator<Callable<AsyncFuture<Object>>> iterator = new Iterator<Callable<AsyncFuture<Object>>>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Callable<AsyncFuture<Object>> next() {
+                pulled.incrementAndGet();
+                return callable;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        final DelayedCollectCoordinator<Object, Object> coordinator = new DelayedCollectCoordinator<Object, Object>(
+                caller, iterator, collector, future, 2);
+
+        final Object result = new Object();
+        final Exception e = new Exception();
 
         coordinator.run();
+        assertEquals(2, pulled.get());
 
-        verify(f, never()).on(coordinator);
-        verify(f2, never()).on(coordinator);
+        coordinator.resolved(result);
+        assertEquals(3, pulled.get());
 
-        verify(collector).end(0, 0, 2);
-        verify(mutex, times(callables.size() + PARALLELISM)).acquire();
+        coordinator.failed(e);
+        verify(collector, never()).end(any(Integer.class), any(Integer.class), any(Integer.class));
 
-        verify(future).on(any(FutureCancelled.class));
-        verify(future, never()).fail(any(Throwable.class));
-        verify(future).resolve(any());
-        verify(future, never()).cancel();
+        coordinator.resolved(result);
+        coordinator.resolved(result);
 
-        verify(caller, times(2)).cancel(eq(collector));
-        verify(caller, never()).resolve(eq(collector), any(Object.class));
-        verify(caller, never()).fail(eq(collector), any(Throwable.class));
+        assertEquals(3, pulled.get());
+        verify(collector).end(2, 1, 0);
+        verify(caller, never()).cancel(eq(collector));
     }
 
+    /* The limit should be read before every start, and every completion reported to it. */
     @Test
-    public void testSuccessful() throws Exception {
-        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(callable);
+    public void testConcurrencyLimit() throws Exception {
+        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(callable, callable2, callable);
+        final ConcurrencyLimit limit = mock(ConcurrencyLimit.class);
+        final Exception e = new Exception();
 
-        final DelayedCollectCoordinator<Object, Object> coordinator = setupCoordinator(callables);
+        when(limit.limit()).thenReturn(1);
 
-        final Object reference = new Object();
+        final DelayedCollectCoordinator<Object, Object> coordinator = new DelayedCollectCoordinator<Object, Object>(
+                caller, callables, collector, future, limit);
 
-        when(collector.end(1, 0, 0)).thenReturn(reference);
-        when(callable.call()).thenReturn(f);
+        final ArgumentCaptor<FutureDone> done = ArgumentCaptor.forClass(FutureDone.class);
 
         coordinator.run();
 
-        verify(f).on(coordinator);
-        verify(f2, never()).on(coordinator);
+        verify(f).on(done.capture());
+        verify(callable2, never()).call();
 
-        verify(collector).end(1, 0, 0);
-        verify(mutex, times(callables.size() + PARALLELISM)).acquire();
+        when(limit.limit()).thenReturn(2);
+        done.getValue().resolved(new Object());
 
-        verify(future).on(any(FutureCancelled.class));
-        verify(future, never()).fail(any(Throwable.class));
-        verify(future).resolve(reference);
-        verify(future, never()).cancel();
+        verify(limit).sample(any(Long.class), any(Long.class), eq(false));
+        verify(callable, times(2)).call();
+        verify(callable2).call();
 
-        verify(caller, never()).cancel(eq(collector));
-        verify(caller, never()).resolve(eq(collector), any(Object.class));
-        verify(caller, never()).fail(eq(collector), any(Throwable.class));
+        verify(f2).on(done.capture());
+        done.getValue().failed(e);
+
+        verify(limit).sample(any(Long.class), any(Long.class), eq(true));
+
+        // cancellations are reported as dropped as well.
+        verify(f, times(2)).on(done.capture());
+        done.getValue().cancelled();
+
+        verify(limit, times(2)).sample(any(Long.class), any(Long.class), eq(true));
     }
 
     @Test
@@ -236,21 +309,22 @@ public class DelayedCollectCoordinatorTest {
         final DelayedCollectCoordinator<Object, Object> coordinator = setupCoordinator(callables);
 
         final Object reference = new Object();
+        final Object result = new Object();
 
         final Exception e = new Exception();
 
         when(collector.end(1, 1, 0)).thenReturn(reference);
-        when(callable.call()).thenReturn(f);
         when(callable2.call()).thenThrow(e);
 
         coordinator.run();
 
         verify(f).on(coordinator);
         verify(f2, never()).on(coordinator);
+        verify(collector, never()).end(any(Integer.class), any(Integer.class), any(Integer.class));
+
+        coordinator.resolved(result);
 
         verify(collector).end(1, 1, 0);
-        verify(mutex, times(callables.size() + PARALLELISM)).acquire();
-        verify(mutex).release();
 
         verify(future).on(any(FutureCancelled.class));
         verify(future, never()).fail(any(Throwable.class));
@@ -258,7 +332,7 @@ public class DelayedCollectCoordinatorTest {
         verify(future, never()).cancel();
 
         verify(caller, never()).cancel(eq(collector));
-        verify(caller, never()).resolve(eq(collector), any(Object.class));
+        verify(caller).resolve(collector, result);
         verify(caller, times(1)).fail(eq(collector), any(Throwable.class));
     }
 
@@ -279,11 +353,11 @@ public class DelayedCollectCoordinatorTest {
 
         coordinator.run();
 
+        verify(callable2, never()).call();
         verify(f, never()).on(coordinator);
         verify(f2, never()).on(coordinator);
 
         verify(collector).end(0, 1, 1);
-        verify(mutex, times(callables.size() + PARALLELISM)).acquire();
 
         verify(future).on(any(FutureCancelled.class));
         verify(future, never()).fail(any(Throwable.class));
@@ -305,28 +379,23 @@ public class DelayedCollectCoordinatorTest {
         final Exception e = new Exception();
 
         when(collector.end(1, 0, 0)).thenThrow(e);
-        when(callable.call()).thenReturn(f);
 
         coordinator.run();
+        coordinator.resolved(reference);
 
         verify(f).on(coordinator);
         verify(f2, never()).on(coordinator);
 
         verify(collector).end(1, 0, 0);
-        verify(mutex, times(callables.size() + PARALLELISM)).acquire();
 
         verify(future).on(any(FutureCancelled.class));
         verify(future).fail(any(Throwable.class));
         verify(future, never()).resolve(reference);
         verify(future, never()).cancel();
-
-        verify(caller, never()).cancel(eq(collector));
-        verify(caller, never()).resolve(eq(collector), any(Object.class));
-        verify(caller, never()).fail(eq(collector), any(Throwable.class));
     }
 
     private DelayedCollectCoordinator<Object, Object> setupCoordinator(
             final List<Callable<AsyncFuture<Object>>> callables) {
-        return new DelayedCollectCoordinator<Object, Object>(caller, callables, collector, mutex, future, PARALLELISM);
+        return new DelayedCollectCoordinator<Object, Object>(caller, callables, collector, future, PARALLELISM);
     }
-}
\ No newline at end of file
+}
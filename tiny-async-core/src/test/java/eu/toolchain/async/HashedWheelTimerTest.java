@@ -0,0 +1,185 @@
+package eu.toolchain.async;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class HashedWheelTimerTest {
+    @Rule
+    public ExpectedException except = ExpectedException.none();
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setup() {
+        timer = new HashedWheelTimer(Executors.defaultThreadFactory(), 1, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @After
+    public void teardown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        final HashedWheelTimer.Timeout timeout = timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void testExpireMultipleRounds() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        /* longer than a full round of the wheel */
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final AtomicInteger expired = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        final HashedWheelTimer.Timeout timeout = timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                expired.incrementAndGet();
+            }
+        }, 5, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.cancel());
+
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, expired.get());
+    }
+
+    @Test
+    public void testScheduleStopped() {
+        except.expect(IllegalStateException.class);
+        timer.stop();
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 5, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testFutureTimeout() throws Exception {
+        final TinyAsync async = TinyAsync.builder().timer(timer).build();
+        final ResolvableFuture<Object> future = async.future();
+        final AsyncFuture<Object> timed = future.timeout(5, TimeUnit.MILLISECONDS);
+
+        assertNotSame(future, timed);
+
+        try {
+            timed.get(10, TimeUnit.SECONDS);
+            throw new AssertionError("expected future to time out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+
+        // the source is cancelled right after the timed out future has been failed.
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            throw new AssertionError("expected source to be cancelled");
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testFutureCompletedBeforeTimeout() throws Exception {
+        final TinyAsync async = TinyAsync.builder().timer(timer).build();
+        final ResolvableFuture<Object> future = async.future();
+        final Object result = new Object();
+
+        final AsyncFuture<Object> timed = future.timeout(10, TimeUnit.MILLISECONDS);
+        future.resolve(result);
+
+        Thread.sleep(30);
+        assertEquals(result, timed.getNow());
+    }
+
+    @Test
+    public void testFutureTimeoutOffTimerThread() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            final TinyAsync async = TinyAsync.builder().executor(executor).timer(timer).build();
+            final ResolvableFuture<Object> future = async.future();
+            final AtomicReference<Thread> failedOn = new AtomicReference<>();
+            final CountDownLatch failed = new CountDownLatch(1);
+
+            future.timeout(5, TimeUnit.MILLISECONDS).on(new FutureFailed() {
+                @Override
+                public void failed(Throwable cause) throws Exception {
+                    failedOn.set(Thread.currentThread());
+                    failed.countDown();
+                }
+            });
+
+            assertTrue(failed.await(10, TimeUnit.SECONDS));
+
+            final AtomicReference<Thread> timerThread = new AtomicReference<>();
+            final CountDownLatch ran = new CountDownLatch(1);
+
+            timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    timerThread.set(Thread.currentThread());
+                    ran.countDown();
+                }
+            }, 1, TimeUnit.MILLISECONDS);
+
+            assertTrue(ran.await(10, TimeUnit.SECONDS));
+            assertNotSame(timerThread.get(), failedOn.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
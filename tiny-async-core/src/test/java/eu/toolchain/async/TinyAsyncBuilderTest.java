@@ -33,6 +33,13 @@ public class TinyAsyncBuilderTest {
         builder().executor(null);
     }
 
+    @Test
+    public void testBuilderNullTimer() {
+        except.expect(NullPointerException.class);
+        except.expectMessage("timer");
+        builder().timer(null);
+    }
+
     @Test
     public void testBuilderNullCallerExecutor() {
         except.expect(NullPointerException.class);
@@ -73,6 +80,61 @@ public class TinyAsyncBuilderTest {
         assertEquals(caller, async.caller());
     }
 
+    @Test
+    public void testBuilderTrampoline() {
+        final TinyAsync async = builder().caller(caller).trampoline(true).build();
+        assertTrue(async.caller() instanceof TrampolineAsyncCaller);
+    }
+
+    @Test
+    public void testBuilderInvalidCallerBatchSize() {
+        except.expect(IllegalArgumentException.class);
+        except.expectMessage("callerBatchSize");
+        builder().callerBatchSize(0);
+    }
+
+    @Test
+    public void testBuilderCallerBatchSize() {
+        final TinyAsync async = builder().callerExecutor(executor).callerBatchSize(16).build();
+        assertEquals(16, ((ExecutorAsyncCaller) async.threadedCaller()).batchSize());
+    }
+
+    @Test
+    public void testBuilderVirtualThreadExecutor() {
+        if (!VirtualThreads.isAvailable()) {
+            except.expect(IllegalStateException.class);
+            builder().virtualThreadExecutor();
+            return;
+        }
+
+        final TinyAsync async = builder().virtualThreadExecutor().build();
+        assertNotNull(async.defaultExecutor());
+        async.defaultExecutor().shutdown();
+
+        // handles are not invoked on virtual threads unless requested.
+        except.expect(IllegalStateException.class);
+        async.threadedCaller();
+    }
+
+    @Test
+    public void testBuilderVirtualThreadExecutorThreaded() {
+        if (!VirtualThreads.isAvailable())
+            return;
+
+        final TinyAsync async = builder().virtualThreadExecutor().threaded(true).build();
+        assertTrue(async.threadedCaller() instanceof ExecutorAsyncCaller);
+        async.defaultExecutor().shutdown();
+    }
+
+    @Test
+    public void testBuilderExecutorReplacesVirtualThreadExecutor() {
+        if (!VirtualThreads.isAvailable())
+            return;
+
+        final TinyAsync async = builder().virtualThreadExecutor().executor(executor).build();
+        assertEquals(executor, async.defaultExecutor());
+    }
+
     @Test
     public void testBuilderDefaultExecutor() {
         final TinyAsync async = builder().executor(executor).build();
@@ -1,9 +1,11 @@
 package eu.toolchain.async;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
@@ -17,10 +19,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -37,14 +40,17 @@ import com.google.common.collect.ImmutableList;
 
 import eu.toolchain.async.concurrent.ConcurrentManaged;
 import eu.toolchain.async.concurrent.ConcurrentResolvableFuture;
+import eu.toolchain.async.helper.CallHelper;
 import eu.toolchain.async.helper.CancelledLazyTransformHelper;
 import eu.toolchain.async.helper.CancelledTransformHelper;
 import eu.toolchain.async.helper.CollectAndDiscardHelper;
 import eu.toolchain.async.helper.CollectHelper;
 import eu.toolchain.async.helper.FailedLazyTransformHelper;
 import eu.toolchain.async.helper.FailedTransformHelper;
+import eu.toolchain.async.helper.FusedTransformHelper;
 import eu.toolchain.async.helper.ResolvedLazyTransformHelper;
 import eu.toolchain.async.helper.ResolvedTransformHelper;
+import eu.toolchain.async.helper.TimeoutHelper;
 import eu.toolchain.async.immediate.ImmediateCancelledAsyncFuture;
 import eu.toolchain.async.immediate.ImmediateFailedAsyncFuture;
 import eu.toolchain.async.immediate.ImmediateResolvedAsyncFuture;
@@ -57,8 +63,6 @@ public class TinyAsyncTest {
     @Rule
     public ExpectedException except = ExpectedException.none();
 
-    @Mock
-    private Future<?> task;
     @Mock
     private ExecutorService executor;
     @Mock
@@ -159,6 +163,55 @@ public class TinyAsyncTest {
         verifyTransform(ResolvedTransformHelper.class);
     }
 
+    @Test
+    public void testPipeline() {
+        @SuppressWarnings("unchecked")
+        final Transform<Object, Object> transform = mock(Transform.class);
+        @SuppressWarnings("unchecked")
+        final Transform<Throwable, Object> errorTransform = mock(Transform.class);
+
+        doReturn(resolvableFuture).when(underTest).future();
+        doReturn(resolvableFuture).when(resolvableFuture).bind(future);
+
+        assertEquals(resolvableFuture, underTest.pipeline(future).transform(transform).catchFailed(errorTransform)
+                .future());
+
+        /* a single listener and target future for the whole pipeline */
+        verify(underTest, times(1)).future();
+        verify(future, times(1)).on(any(FusedTransformHelper.class));
+        verify(resolvableFuture).bind(future);
+    }
+
+    @Test
+    public void testPipelineEmpty() {
+        assertEquals(future, underTest.pipeline(future).future());
+        verify(underTest, never()).future();
+    }
+
+    @Test
+    public void testTimeout() {
+        final HashedWheelTimer timer = mock(HashedWheelTimer.class);
+        final TinyAsync async = new TinyAsync(executor, caller, threadedCaller, timer);
+
+        assertNotSame(future, async.timeout(future, 10, TimeUnit.SECONDS));
+
+        verify(timer).schedule(any(TimeoutHelper.class), eq(10L), eq(TimeUnit.SECONDS));
+        verify(future).on(any(TimeoutHelper.class));
+    }
+
+    @Test
+    public void testTimeoutDone() {
+        final HashedWheelTimer timer = mock(HashedWheelTimer.class);
+        final TinyAsync async = new TinyAsync(executor, caller, threadedCaller, timer);
+
+        doReturn(true).when(future).isDone();
+
+        assertEquals(future, async.timeout(future, 10, TimeUnit.SECONDS));
+
+        verify(timer, never()).schedule(any(Runnable.class), any(Long.class), any(TimeUnit.class));
+        verify(future, never()).on(any(FutureFinished.class));
+    }
+
     @Test
     public void testLazyTransform() {
         @SuppressWarnings("unchecked")
@@ -220,21 +273,20 @@ public class TinyAsyncTest {
     }
 
     private void whenExecutorSubmitSetup() {
-        doAnswer(new Answer<Future<?>>() {
+        doAnswer(new Answer<Void>() {
             @Override
-            public Future<?> answer(InvocationOnMock invocation) throws Throwable {
+            public Void answer(InvocationOnMock invocation) throws Throwable {
                 final Runnable run = (Runnable) invocation.getArguments()[0];
                 run.run();
-                return task;
+                return null;
             }
-        }).when(executor).submit(any(Runnable.class));
+        }).when(executor).execute(any(Runnable.class));
     }
 
-    private void verifyCall(int calls, int resolved, int failed, int taskCancel) throws Exception {
+    private void verifyCall(int calls, int resolved, int failed) throws Exception {
         verify(callable, times(calls)).call();
         verify(resolvableFuture, times(resolved)).resolve(any(Object.class));
         verify(resolvableFuture, times(failed)).fail(e);
-        verify(task, times(taskCancel)).cancel(false);
     }
 
     @Test
@@ -242,7 +294,7 @@ public class TinyAsyncTest {
         whenExecutorSubmitSetup();
         when(resolvableFuture.isDone()).thenReturn(true);
         underTest.call(callable, executor, resolvableFuture);
-        verifyCall(0, 0, 0, 0);
+        verifyCall(0, 0, 0);
     }
 
     @Test
@@ -280,7 +332,8 @@ public class TinyAsyncTest {
         whenExecutorSubmitSetup();
         when(resolvableFuture.isDone()).thenReturn(false);
         underTest.call(callable, executor, resolvableFuture);
-        verifyCall(1, 1, 0, 0);
+        verify(resolvableFuture).on(any(CallHelper.class));
+        verifyCall(1, 1, 0);
     }
 
     @Test
@@ -289,19 +342,21 @@ public class TinyAsyncTest {
         when(callable.call()).thenThrow(e);
         when(resolvableFuture.isDone()).thenReturn(false);
         underTest.call(callable, executor, resolvableFuture);
-        verifyCall(1, 0, 1, 0);
+        verifyCall(1, 0, 1);
     }
 
     @Test
     public void testTaskCancel() throws Exception {
-        doAnswer(new Answer<Future<?>>() {
+        final Runnable[] task = new Runnable[1];
+
+        doAnswer(new Answer<Void>() {
             @Override
-            public Future<?> answer(InvocationOnMock invocation) throws Throwable {
-                return task;
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                task[0] = (Runnable) invocation.getArguments()[0];
+                return null;
             }
-        }).when(executor).submit(any(Runnable.class));
+        }).when(executor).execute(any(Runnable.class));
 
-        when(callable.call()).thenThrow(e);
         when(resolvableFuture.isDone()).thenReturn(false);
 
         doAnswer(new Answer<Void>() {
@@ -314,15 +369,18 @@ public class TinyAsyncTest {
         }).when(resolvableFuture).on(any(FutureCancelled.class));
 
         underTest.call(callable, executor, resolvableFuture);
-        verifyCall(0, 0, 0, 1);
+
+        /* cancelled before the task got to run */
+        task[0].run();
+        verifyCall(0, 0, 0);
     }
 
     @Test
     public void testCallSubmitThrows() throws Exception {
-        when(executor.submit(any(Runnable.class))).thenThrow(e);
+        doThrow(e).when(executor).execute(any(Runnable.class));
         when(resolvableFuture.isDone()).thenReturn(false);
         underTest.call(callable, executor, resolvableFuture);
-        verifyCall(0, 0, 1, 0);
+        verifyCall(0, 0, 1);
     }
 
     private void runEventuallyCollectTest(int size, int parallelism) {
@@ -411,13 +469,83 @@ public class TinyAsyncTest {
     public void testDoEventuallyCollect() throws Exception {
         final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(c, c2);
 
-        doReturn(executor).when(underTest).defaultExecutor();
+        doReturn(f1).when(c).call();
+        doReturn(f2).when(c2).call();
         doReturn(resolvableFuture).when(underTest).future();
 
         assertEquals(resolvableFuture, underTest.doEventuallyCollect(callables, streamCollector, 10));
 
-        verify(executor).execute(any(DelayedCollectCoordinator.class));
-        verify(underTest).defaultExecutor();
+        verify(f1).on(any(DelayedCollectCoordinator.class));
+        verify(f2).on(any(DelayedCollectCoordinator.class));
+        verify(underTest, never()).defaultExecutor();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testEventuallyCollectIteratorEmpty() throws Exception {
+        final Iterator<Callable<AsyncFuture<Object>>> iterator = mock(Iterator.class);
+        doReturn(false).when(iterator).hasNext();
+        doReturn(future).when(underTest).doEventuallyCollectEmpty(streamCollector);
+
+        assertEquals(future, underTest.eventuallyCollect(iterator, streamCollector, 10));
+
+        verify(underTest).doEventuallyCollectEmpty(streamCollector);
+        verify(underTest, never()).doEventuallyCollect(iterator, streamCollector, 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testEventuallyCollectIterator() throws Exception {
+        final Iterator<Callable<AsyncFuture<Object>>> iterator = mock(Iterator.class);
+        doReturn(true).when(iterator).hasNext();
+        doReturn(future).when(underTest).doEventuallyCollect(iterator, streamCollector, 10);
+
+        assertEquals(future, underTest.eventuallyCollect(iterator, streamCollector, 10));
+
+        verify(underTest, never()).doEventuallyCollectEmpty(streamCollector);
+        verify(underTest).doEventuallyCollect(iterator, streamCollector, 10);
+    }
+
+    @Test
+    public void testEventuallyCollectLimit() throws Exception {
+        final ConcurrencyLimit limit = mock(ConcurrencyLimit.class);
+        doReturn(false).when(callables).isEmpty();
+        doReturn(future).when(underTest).doEventuallyCollect(callables, streamCollector, limit);
+
+        assertEquals(future, underTest.eventuallyCollect(callables, streamCollector, limit));
+
+        verify(underTest, never()).doEventuallyCollectEmpty(streamCollector);
+        verify(underTest).doEventuallyCollect(callables, streamCollector, limit);
+    }
+
+    @Test
+    public void testDoEventuallyCollectLimit() throws Exception {
+        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(c, c2);
+        final ConcurrencyLimit limit = mock(ConcurrencyLimit.class);
+
+        doReturn(1).when(limit).limit();
+        doReturn(f1).when(c).call();
+        doReturn(resolvableFuture).when(underTest).future();
+
+        assertEquals(resolvableFuture, underTest.doEventuallyCollect(callables, streamCollector, limit));
+
+        verify(c).call();
+        verify(c2, never()).call();
+    }
+
+    @Test
+    public void testDoEventuallyCollectIterator() throws Exception {
+        final List<Callable<AsyncFuture<Object>>> callables = ImmutableList.of(c, c2);
+
+        doReturn(f1).when(c).call();
+        doReturn(f2).when(c2).call();
+        doReturn(resolvableFuture).when(underTest).future();
+
+        assertEquals(resolvableFuture, underTest.doEventuallyCollect(callables.iterator(), streamCollector, 1));
+
+        verify(c).call();
+        verify(c2, never()).call();
+        verify(f1).on(any(DelayedCollectCoordinator.class));
     }
 
     @Test
@@ -496,6 +624,86 @@ public class TinyAsyncTest {
         verify(f2).on(any(CollectHelper.class));
     }
 
+    @Test
+    public void testCollectOrdered() throws Exception {
+        doReturn(false).when(futures).isEmpty();
+        doReturn(future).when(underTest).doCollectOrdered(futures, collector);
+
+        assertEquals(future, underTest.collectOrdered(futures, collector));
+
+        final InOrder order = inOrder(futures, underTest);
+        order.verify(futures).isEmpty();
+        order.verify(underTest, never()).doCollectEmpty(collector);
+        order.verify(underTest).doCollectOrdered(futures, collector);
+    }
+
+    @Test
+    public void testDoCollectOrdered() throws Exception {
+        final Collection<AsyncFuture<Object>> futures = ImmutableList.of(f1, f2);
+
+        doReturn(resolvableFuture).when(underTest).future();
+        doNothing().when(underTest).bindSignals(resolvableFuture, futures);
+
+        assertEquals(resolvableFuture, underTest.doCollectOrdered(futures, collector));
+
+        verify(underTest).future();
+        verify(underTest).bindSignals(resolvableFuture, futures);
+        verify(f1).on(any(FutureDone.class));
+        verify(f2).on(any(FutureDone.class));
+    }
+
+    @Test
+    public void testCollectOrderedPreservesOrder() throws Exception {
+        final TinyAsync async = TinyAsync.builder().build();
+
+        final ResolvableFuture<Integer> first = async.future();
+        final ResolvableFuture<Integer> second = async.future();
+        final ResolvableFuture<Integer> third = async.future();
+
+        final AsyncFuture<List<Integer>> collected = async.collectOrdered(ImmutableList.of(first, second, third));
+
+        third.resolve(3);
+        first.resolve(1);
+        second.resolve(2);
+
+        assertEquals(ImmutableList.of(1, 2, 3), collected.getNow());
+    }
+
+    @Test
+    public void testCollectFailFast() throws Exception {
+        final TinyAsync async = TinyAsync.builder().build();
+
+        final ResolvableFuture<Integer> first = async.future();
+        final ResolvableFuture<Integer> second = async.future();
+        final ResolvableFuture<Integer> third = async.future();
+
+        final AsyncFuture<Collection<Integer>> collected = async.collectFailFast(ImmutableList.of(first, second,
+                third));
+
+        first.resolve(1);
+        second.fail(e);
+
+        /* failed without waiting for the third future, which is cancelled */
+        assertTrue(collected.isFailed());
+        assertEquals(e, collected.cause());
+        assertTrue(third.isCancelled());
+    }
+
+    @Test
+    public void testCollectAndDiscardFailFast() throws Exception {
+        final TinyAsync async = TinyAsync.builder().build();
+
+        final ResolvableFuture<Integer> first = async.future();
+        final ResolvableFuture<Integer> second = async.future();
+
+        final AsyncFuture<Void> collected = async.collectAndDiscardFailFast(ImmutableList.of(first, second));
+
+        first.fail(e);
+
+        assertTrue(collected.isFailed());
+        assertTrue(second.isCancelled());
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testDoCollectEmpty() throws Exception {
@@ -564,6 +772,62 @@ public class TinyAsyncTest {
         verify(f2).on(any(CollectHelper.class));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCollectSerializedEmpty() throws Exception {
+        final Collection<AsyncFuture<Object>> futures = mock(Collection.class);
+        doReturn(true).when(futures).isEmpty();
+        doReturn(future).when(underTest).doCollectEmpty(streamCollector);
+        doReturn(future).when(underTest).doCollectSerialized(futures, streamCollector);
+
+        assertEquals(future, underTest.collectSerialized(futures, streamCollector));
+
+        verify(futures).isEmpty();
+        verify(underTest).doCollectEmpty(streamCollector);
+        verify(underTest, never()).doCollectSerialized(futures, streamCollector);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCollectSerialized() throws Exception {
+        final Collection<AsyncFuture<Object>> futures = mock(Collection.class);
+        doReturn(false).when(futures).isEmpty();
+        doReturn(future).when(underTest).doCollectEmpty(streamCollector);
+        doReturn(future).when(underTest).doCollectSerialized(futures, streamCollector);
+
+        assertEquals(future, underTest.collectSerialized(futures, streamCollector));
+
+        verify(futures).isEmpty();
+        verify(underTest, never()).doCollectEmpty(streamCollector);
+        verify(underTest).doCollectSerialized(futures, streamCollector);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testDoCollectSerialized() throws Exception {
+        final Collection<AsyncFuture<Object>> futures = ImmutableList.of(f1, f2);
+
+        doReturn(resolvableFuture).when(underTest).future();
+        doNothing().when(underTest).bindSignals(resolvableFuture, futures);
+
+        assertEquals(resolvableFuture, underTest.doCollectSerialized(futures, streamCollector));
+
+        verify(underTest).future();
+        verify(underTest).bindSignals(resolvableFuture, futures);
+        verify(f1).on(any(SerializedCollectStreamHelper.class));
+        verify(f2).on(any(SerializedCollectStreamHelper.class));
+    }
+
+    @Test
+    public void testDirectCaller() throws Exception {
+        final AsyncCaller direct = mock(AsyncCaller.class);
+        final AsyncCaller wrapped = new TrampolineAsyncCaller(new ExecutorAsyncCaller(
+                mock(ExecutorService.class), direct));
+
+        assertEquals(direct, TinyAsync.directCaller(wrapped));
+        assertEquals(direct, TinyAsync.directCaller(direct));
+    }
+
     @Test
     public void testDoCollectEmptyStream() throws Exception {
         doReturn(result).when(streamCollector).end(0, 0, 0);
@@ -0,0 +1,139 @@
+package eu.toolchain.async;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class TrampolineAsyncCallerTest {
+    private final Object result = new Object();
+    private final Throwable cause = new Exception();
+
+    private AsyncCaller caller;
+    private TrampolineAsyncCaller underTest;
+
+    private FutureDone<Object> done;
+    private FutureFinished finished;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() {
+        caller = mock(AsyncCaller.class);
+        underTest = new TrampolineAsyncCaller(caller);
+        done = mock(FutureDone.class);
+        finished = mock(FutureFinished.class);
+    }
+
+    @Test
+    public void testIsThreaded() {
+        assertFalse(underTest.isThreaded());
+        when(caller.isThreaded()).thenReturn(true);
+        assertTrue(underTest.isThreaded());
+    }
+
+    @Test
+    public void testDirect() {
+        underTest.resolve(done, result);
+        underTest.fail(done, cause);
+        underTest.cancel(done);
+        verify(caller).resolve(done, result);
+        verify(caller).fail(done, cause);
+        verify(caller).cancel(done);
+    }
+
+    @Test
+    public void testReentrantDeferred() {
+        final AtomicBoolean finishedCalled = new AtomicBoolean();
+        final AtomicBoolean finishedInside = new AtomicBoolean();
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                underTest.finish(finished);
+                finishedInside.set(finishedCalled.get());
+                return null;
+            }
+        }).when(caller).resolve(done, result);
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                finishedCalled.set(true);
+                return null;
+            }
+        }).when(caller).finish(finished);
+
+        underTest.resolve(done, result);
+
+        assertFalse("re-entrant call should be deferred", finishedInside.get());
+        assertTrue("re-entrant call should run before returning", finishedCalled.get());
+    }
+
+    @Test
+    public void testThrowingTaskDoesNotStrandQueue() {
+        final RuntimeException error = new RuntimeException();
+        final Error second = new Error();
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                underTest.finish(finished);
+                underTest.cancel(done);
+                throw error;
+            }
+        }).when(caller).resolve(done, result);
+
+        doThrow(second).when(caller).finish(finished);
+
+        try {
+            underTest.resolve(done, result);
+            fail("expected the error to be re-thrown");
+        } catch (final RuntimeException e) {
+            assertSame(error, e);
+            assertArrayEquals(new Throwable[] { second }, e.getSuppressed());
+        }
+
+        // queued tasks still ran, and the queue is usable afterwards.
+        verify(caller).finish(finished);
+        verify(caller).cancel(done);
+
+        underTest.fail(done, cause);
+        verify(caller).fail(done, cause);
+    }
+
+    @Test
+    public void testDeepLazyTransformChain() throws Exception {
+        final int depth = 100000;
+
+        final AsyncFramework async = TinyAsync.builder().trampoline(true).build();
+        final ResolvableFuture<Integer> source = async.future();
+
+        AsyncFuture<Integer> current = source;
+
+        for (int i = 0; i < depth; i++) {
+            current = current.lazyTransform(new LazyTransform<Integer, Integer>() {
+                @Override
+                public AsyncFuture<Integer> transform(Integer value) throws Exception {
+                    return async.resolved(value + 1);
+                }
+            });
+        }
+
+        source.resolve(0);
+        assertEquals(Integer.valueOf(depth), current.getNow());
+    }
+}
@@ -0,0 +1,31 @@
+package eu.toolchain.async;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class VirtualThreadsTest {
+    public static ExecutorService unsupported() {
+        throw new UnsupportedOperationException("preview features not enabled");
+    }
+
+    public static ExecutorService supported() {
+        return Executors.newSingleThreadExecutor();
+    }
+
+    @Test
+    public void testProbeUnsupported() throws Exception {
+        assertNull(VirtualThreads.probe(VirtualThreadsTest.class.getMethod("unsupported")));
+    }
+
+    @Test
+    public void testProbeSupported() throws Exception {
+        final Method method = VirtualThreadsTest.class.getMethod("supported");
+        assertSame(method, VirtualThreads.probe(method));
+    }
+}
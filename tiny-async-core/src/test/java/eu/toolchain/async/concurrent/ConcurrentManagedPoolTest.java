@@ -0,0 +1,295 @@
+package eu.toolchain.async.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.Borrowed;
+import eu.toolchain.async.HashedWheelTimer;
+import eu.toolchain.async.ManagedAction;
+import eu.toolchain.async.ManagedSetup;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+
+public class ConcurrentManagedPoolTest {
+    private static final int SIZE = 2;
+
+    private AsyncFramework async;
+    private HashedWheelTimer timer;
+
+    private final List<Object> constructed = new ArrayList<>();
+    private final List<Object> destructed = new ArrayList<>();
+
+    private Exception constructError;
+
+    private ConcurrentManagedPool<Object> underTest;
+
+    @Before
+    public void setup() {
+        async = TinyAsync.builder().build();
+        timer = mock(HashedWheelTimer.class);
+
+        final ManagedSetup<Object> setup = new ManagedSetup<Object>() {
+            @Override
+            public AsyncFuture<Object> construct() throws Exception {
+                if (constructError != null)
+                    return async.failed(constructError);
+
+                final Object value = new Object();
+                constructed.add(value);
+                return async.resolved(value);
+            }
+
+            @Override
+            public AsyncFuture<Void> destruct(Object value) throws Exception {
+                destructed.add(value);
+                return async.resolved();
+            }
+        };
+
+        underTest = new ConcurrentManagedPool<Object>(async, setup, timer, null, SIZE, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSize() {
+        async.managedPool(null, 0);
+    }
+
+    @Test
+    public void testNotStarted() {
+        assertFalse(underTest.isReady());
+        assertTrue(underTest.acquire().isCancelled());
+        assertFalse(underTest.borrow().isValid());
+    }
+
+    @Test
+    public void testAcquireWaitsWhenExhausted() throws Exception {
+        underTest.start();
+
+        final Borrowed<Object> a = underTest.acquire().get();
+        final Borrowed<Object> b = underTest.acquire().get();
+        assertNotSame(a.get(), b.get());
+        assertEquals(SIZE, constructed.size());
+
+        final AsyncFuture<Borrowed<Object>> c = underTest.acquire();
+        assertFalse(c.isDone());
+
+        a.release();
+        // a second release is ignored.
+        a.release();
+
+        assertSame(a.get(), c.get().get());
+        assertEquals(SIZE, constructed.size());
+    }
+
+    @Test
+    public void testBorrowOnlyIdle() throws Exception {
+        underTest.start();
+        assertFalse(underTest.borrow().isValid());
+
+        final Borrowed<Object> a = underTest.acquire().get();
+        a.release();
+
+        final Borrowed<Object> b = underTest.borrow();
+        assertTrue(b.isValid());
+        assertSame(a.get(), b.get());
+        // exclusive, the only constructed reference is borrowed.
+        assertFalse(underTest.borrow().isValid());
+    }
+
+    @Test
+    public void testCancelledWaiter() throws Exception {
+        underTest.start();
+
+        final Borrowed<Object> a = underTest.acquire().get();
+        underTest.acquire().get();
+
+        final AsyncFuture<Borrowed<Object>> c = underTest.acquire();
+        final AsyncFuture<Borrowed<Object>> d = underTest.acquire();
+        assertEquals(2, underTest.waiters.size());
+
+        // removed from the queue right away, even when not at the head.
+        d.cancel();
+        assertEquals(1, underTest.waiters.size());
+        c.cancel();
+        assertTrue(underTest.waiters.isEmpty());
+
+        a.release();
+
+        assertSame(a.get(), underTest.borrow().get());
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        underTest.start();
+
+        final Borrowed<Object> a = underTest.acquire().get();
+        final Borrowed<Object> b = underTest.acquire().get();
+        final AsyncFuture<Borrowed<Object>> c = underTest.acquire();
+
+        final AsyncFuture<Void> stop = underTest.stop();
+        assertTrue(c.isCancelled());
+        assertFalse(stop.isDone());
+
+        a.release();
+        assertEquals(1, destructed.size());
+        assertFalse(stop.isDone());
+
+        b.release();
+        assertEquals(SIZE, destructed.size());
+        assertTrue(stop.isDone());
+
+        assertTrue(underTest.acquire().isCancelled());
+    }
+
+    @Test
+    public void testStopIdle() throws Exception {
+        underTest.start();
+        underTest.acquire().get().release();
+
+        assertTrue(underTest.stop().isDone());
+        assertEquals(constructed, destructed);
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        assertTrue(underTest.reload().isCancelled());
+        underTest.start();
+
+        final Borrowed<Object> a = underTest.acquire().get();
+        final Borrowed<Object> b = underTest.acquire().get();
+        b.release();
+
+        final AsyncFuture<Void> reload = underTest.reload();
+        // idle references are destructed immediately.
+        assertEquals(1, destructed.size());
+        assertSame(b.get(), destructed.get(0));
+
+        // pending while a reference from before the reload is still borrowed.
+        assertFalse(reload.isDone());
+
+        // borrowed references are destructed when released.
+        a.release();
+        assertEquals(2, destructed.size());
+        assertSame(a.get(), destructed.get(1));
+        assertTrue(reload.isDone());
+
+        final Borrowed<Object> c = underTest.acquire().get();
+        assertEquals(3, constructed.size());
+        assertSame(constructed.get(2), c.get());
+    }
+
+    @Test
+    public void testReloadIdle() throws Exception {
+        underTest.start();
+        underTest.acquire().get().release();
+
+        assertTrue(underTest.reload().isDone());
+        assertEquals(constructed, destructed);
+
+        // nothing was constructed since.
+        assertTrue(underTest.reload().isDone());
+    }
+
+    @Test
+    public void testConstructFailed() throws Exception {
+        constructError = new Exception();
+        underTest.start();
+
+        assertSame(constructError, underTest.acquire().cause());
+        assertEquals(0, underTest.allocated.get());
+    }
+
+    @Test
+    public void testEvict() throws Exception {
+        underTest = new ConcurrentManagedPool<Object>(async, evictSetup(), timer, null, SIZE, 1, TimeUnit.SECONDS);
+        underTest.start();
+        verify(timer).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+        final Borrowed<Object> a = underTest.acquire().get();
+        a.release();
+
+        underTest.evict(System.nanoTime());
+        assertTrue(destructed.isEmpty());
+
+        underTest.evict(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, destructed.size());
+        assertSame(a.get(), destructed.get(0));
+        assertEquals(0, underTest.allocated.get());
+        assertFalse(underTest.borrow().isValid());
+    }
+
+    @Test
+    public void testEvictOnExecutor() throws Exception {
+        final Executor executor = mock(Executor.class);
+
+        underTest = new ConcurrentManagedPool<Object>(async, evictSetup(), timer, executor, SIZE, 1,
+                TimeUnit.NANOSECONDS);
+        underTest.start();
+
+        final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(timer).schedule(task.capture(), anyLong(), any(TimeUnit.class));
+
+        underTest.acquire().get().release();
+        Thread.sleep(1);
+
+        // the timer only hands eviction off to the executor.
+        task.getValue().run();
+        assertTrue(destructed.isEmpty());
+
+        verify(executor).execute(task.capture());
+        task.getValue().run();
+        assertEquals(1, destructed.size());
+    }
+
+    private ManagedSetup<Object> evictSetup() {
+        return new ManagedSetup<Object>() {
+            @Override
+            public AsyncFuture<Object> construct() throws Exception {
+                return async.resolved(new Object());
+            }
+
+            @Override
+            public AsyncFuture<Void> destruct(Object value) throws Exception {
+                destructed.add(value);
+                return async.resolved();
+            }
+        };
+    }
+
+    @Test
+    public void testDoto() throws Exception {
+        underTest.start();
+
+        final ResolvableFuture<Object> result = async.future();
+
+        final AsyncFuture<Object> f = underTest.doto(new ManagedAction<Object, Object>() {
+            @Override
+            public AsyncFuture<Object> action(Object value) throws Exception {
+                return result;
+            }
+        });
+
+        assertFalse(underTest.borrow().isValid());
+        result.resolve(constructed.get(0));
+        assertSame(constructed.get(0), f.get());
+        assertTrue(underTest.borrow().isValid());
+    }
+}
@@ -4,7 +4,9 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -41,8 +43,10 @@ import eu.toolchain.async.LazyTransform;
 import eu.toolchain.async.ManagedAction;
 import eu.toolchain.async.ManagedSetup;
 import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
 import eu.toolchain.async.Transform;
 import eu.toolchain.async.concurrent.ConcurrentManaged;
+import eu.toolchain.async.concurrent.ConcurrentManaged.Generation;
 import eu.toolchain.async.concurrent.ConcurrentManaged.ValidBorrowed;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -52,6 +56,7 @@ public class ConcurrentManagedTest {
     private static final StackTraceElement[] stack = new StackTraceElement[0];
 
     private ConcurrentManaged<Object> underTest;
+    private Generation<Object> generation;
 
     @Mock
     private AsyncFramework async;
@@ -82,6 +87,7 @@ public class ConcurrentManagedTest {
 
     @Before
     public void setup() {
+        generation = new Generation<Object>(reference);
         underTest = spy(new ConcurrentManaged<Object>(async, setup, startFuture, zeroLeaseFuture, stopReferenceFuture,
                 stopFuture));
     }
@@ -183,17 +189,19 @@ public class ConcurrentManagedTest {
         verifyDoto(true, false);
     }
 
+    @SuppressWarnings("unchecked")
     private void setupBorrow(boolean set) throws Exception {
-        doNothing().when(underTest).retain();
-        doNothing().when(underTest).release();
-        doReturn(stack).when(underTest).getStackTrace();
-        underTest.reference.set(set ? reference : null);
+        doNothing().when(underTest).retain(any(Generation.class));
+        doNothing().when(underTest).release(any(Generation.class));
+        doReturn(null).when(underTest).captureStack();
+        underTest.reference.set(set ? generation : null);
     }
 
+    @SuppressWarnings("unchecked")
     private void verifyBorrow(boolean set) throws Exception {
-        verify(underTest).retain();
-        verify(underTest, times(set ? 0 : 1)).release();
-        verify(underTest, times(set ? 1 : 0)).getStackTrace();
+        verify(underTest, times(set ? 1 : 0)).retain(generation);
+        verify(underTest, never()).release(any(Generation.class));
+        verify(underTest, times(set ? 1 : 0)).captureStack();
     }
 
     @Test
@@ -342,52 +350,133 @@ public class ConcurrentManagedTest {
         setupStart(true, reference, false, false);
         assertEquals(startFuture, underTest.start());
 
-        assertEquals(reference, underTest.reference.get());
+        assertEquals(reference, underTest.reference.get().value);
 
         verify(startFuture, never()).fail(e);
         verify(startFuture).resolve(null);
         verify(startFuture, never()).cancel();
     }
 
+    @SuppressWarnings("unchecked")
     @Test
     public void testStopInvalidState() {
         underTest.state.set(ConcurrentManaged.ManagedState.STOPPED);
-        underTest.reference.set(reference);
+        underTest.reference.set(generation);
         assertEquals(stopFuture, underTest.stop());
-        assertEquals(reference, underTest.reference.get());
-        verify(underTest, never()).release();
+        assertEquals(generation, underTest.reference.get());
+        verify(underTest, never()).release(any(Generation.class));
     }
 
     @Test
     public void testStop() {
         underTest.state.set(ConcurrentManaged.ManagedState.STARTED);
-        underTest.reference.set(reference);
+        underTest.reference.set(generation);
         assertEquals(stopFuture, underTest.stop());
         assertNull(underTest.reference.get());
-        verify(underTest).release();
+        assertEquals(zeroLeaseFuture, generation.retired);
+        verify(stopReferenceFuture).resolve(reference);
+        verify(underTest).release(generation);
+        verify(zeroLeaseFuture).resolve(null);
+    }
+
+    @Test
+    public void testStopNotConstructed() {
+        underTest.state.set(ConcurrentManaged.ManagedState.STARTED);
+        assertEquals(stopFuture, underTest.stop());
+        verify(stopReferenceFuture).resolve(null);
+        verify(zeroLeaseFuture).resolve(null);
     }
 
     @Test
     public void testRetainRelease() {
-        assertEquals(1, underTest.leases.get());
-        underTest.retain();
-        assertEquals(2, underTest.leases.get());
-        underTest.release();
-        assertEquals(1, underTest.leases.get());
+        assertEquals(1, generation.leases.sum());
+        underTest.retain(generation);
+        assertEquals(2, generation.leases.sum());
+        underTest.release(generation);
+        assertEquals(1, generation.leases.sum());
     }
 
     @Test
     public void testZeroLeaseFutureResolve() {
-        assertEquals(1, underTest.leases.get());
+        assertEquals(1, generation.leases.sum());
+        underTest.retain(generation);
+        underTest.release(generation);
+        /* the sum is not inspected until retired */
         verify(zeroLeaseFuture, never()).resolve(null);
-        underTest.release();
+        generation.retired = zeroLeaseFuture;
+        underTest.release(generation);
         verify(zeroLeaseFuture, times(1)).resolve(null);
-        underTest.retain();
-        underTest.release();
+        underTest.retain(generation);
+        underTest.release(generation);
         /* multiple invocations are expected due to the contract of ResolvableFuture#resolve() */
         verify(zeroLeaseFuture, times(2)).resolve(null);
     }
 
+    @Test
+    public void testReloadNotStarted() {
+        doReturn(future).when(async).cancelled();
+        assertEquals(future, underTest.reload());
+
+        underTest.state.set(ConcurrentManaged.ManagedState.STARTED);
+        assertEquals(future, underTest.reload());
+        verify(async, times(2)).cancelled();
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        final AsyncFramework async = TinyAsync.builder().build();
+        final List<Object> destructed = new ArrayList<>();
+
+        final ConcurrentManaged<Object> managed = ConcurrentManaged.newManaged(async, new ManagedSetup<Object>() {
+            @Override
+            public AsyncFuture<Object> construct() throws Exception {
+                return async.resolved(new Object());
+            }
+
+            @Override
+            public AsyncFuture<Void> destruct(Object value) throws Exception {
+                destructed.add(value);
+                return async.resolved();
+            }
+        });
+
+        managed.start().get();
+
+        final Borrowed<Object> first = managed.borrow();
+        final AsyncFuture<Void> reload = managed.reload();
+
+        final Borrowed<Object> second = managed.borrow();
+        assertNotSame(first.get(), second.get());
+
+        // the previous generation is destructed once its own leases are released.
+        assertFalse(reload.isDone());
+        first.release();
+        assertTrue(reload.isDone());
+        assertEquals(1, destructed.size());
+        assertSame(first.get(), destructed.get(0));
+
+        final AsyncFuture<Void> stop = managed.stop();
+        assertFalse(stop.isDone());
+        second.release();
+        assertTrue(stop.isDone());
+        assertSame(second.get(), destructed.get(1));
+    }
+
+    @Test
+    public void testIntProperty() {
+        System.setProperty("eu.toolchain.async.ConcurrentManagedTest", "16");
+        System.setProperty("eu.toolchain.async.ConcurrentManagedTest.invalid", "foo");
+
+        try {
+            assertEquals(16, ConcurrentManaged.intProperty("eu.toolchain.async.ConcurrentManagedTest", 128));
+            assertEquals(128, ConcurrentManaged.intProperty("eu.toolchain.async.ConcurrentManagedTest.invalid", 128));
+            assertEquals(128, ConcurrentManaged.intProperty("eu.toolchain.async.ConcurrentManagedTest.unset", 128));
+        } finally {
+            System.clearProperty("eu.toolchain.async.ConcurrentManagedTest");
+            System.clearProperty("eu.toolchain.async.ConcurrentManagedTest.invalid");
+        }
+    }
+
     @Test
     public void testToString() {
         assertEquals("Managed(INITIALIZED, null)", underTest.toString());
@@ -429,7 +518,7 @@ public class ConcurrentManagedTest {
     @Test
     public void testValidBorrowedBasics() throws Exception {
         final ConcurrentManaged<Object> managed = mock(ConcurrentManaged.class);
-        final ValidBorrowed<Object> valid = new ValidBorrowed<Object>(managed, async, reference, stack);
+        final ValidBorrowed<Object> valid = new ValidBorrowed<Object>(managed, generation, null);
 
         assertEquals(reference, valid.get());
         assertArrayEquals(stack, valid.stack());
@@ -439,23 +528,23 @@ public class ConcurrentManagedTest {
     @Test
     public void testValidBorrowedRelease() throws Exception {
         final ConcurrentManaged<Object> managed = mock(ConcurrentManaged.class);
-        final ValidBorrowed<Object> valid = new ValidBorrowed<Object>(managed, async, reference, stack);
+        final ValidBorrowed<Object> valid = new ValidBorrowed<Object>(managed, generation, null);
 
-        assertFalse(valid.released.get());
-        verify(managed, never()).release();
+        assertFalse(valid.isReleased());
+        verify(managed, never()).release(generation);
         valid.release();
-        assertTrue(valid.released.get());
-        verify(managed, times(1)).release();
+        assertTrue(valid.isReleased());
+        verify(managed, times(1)).release(generation);
         valid.release();
-        assertTrue(valid.released.get());
-        verify(managed, times(1)).release();
+        assertTrue(valid.isReleased());
+        verify(managed, times(1)).release(generation);
     }
 
     @SuppressWarnings("unchecked")
     @Test
     public void testValidBorrowedClose() throws Exception {
         final ConcurrentManaged<Object> managed = mock(ConcurrentManaged.class);
-        final ValidBorrowed<Object> valid = spy(new ValidBorrowed<Object>(managed, async, reference, stack));
+        final ValidBorrowed<Object> valid = spy(new ValidBorrowed<Object>(managed, generation, null));
 
         doNothing().when(valid).release();
         valid.close();
@@ -466,7 +555,7 @@ public class ConcurrentManagedTest {
     @Test
     public void testReleasing() throws Exception {
         final ConcurrentManaged<Object> managed = mock(ConcurrentManaged.class);
-        final ValidBorrowed<Object> valid = spy(new ValidBorrowed<Object>(managed, async, reference, stack));
+        final ValidBorrowed<Object> valid = spy(new ValidBorrowed<Object>(managed, generation, null));
 
         doNothing().when(valid).release();
         valid.releasing().finished();
@@ -475,30 +564,21 @@ public class ConcurrentManagedTest {
 
     @SuppressWarnings("unchecked")
     @Test
-    public void testFinalizeDoNothing() throws Throwable {
+    public void testReleaseClosesLeak() throws Exception {
         final ConcurrentManaged<Object> managed = mock(ConcurrentManaged.class);
-        final ValidBorrowed<Object> valid = spy(new ValidBorrowed<Object>(managed, async, reference, stack));
+        final ValidBorrowed<Object> valid = new ValidBorrowed<Object>(managed, generation, null);
 
         final AsyncCaller caller = mock(AsyncCaller.class);
-
         doReturn(caller).when(async).caller();
-        valid.released.set(true);
-        valid.finalize();
-        verify(async, never()).caller();
-        verify(caller, never()).referenceLeaked(reference, stack);
-    }
 
-    @SuppressWarnings("unchecked")
-    @Test
-    public void testFinalizeReportLeak() throws Throwable {
-        final ConcurrentManaged<Object> managed = mock(ConcurrentManaged.class);
-        final ValidBorrowed<Object> valid = spy(new ValidBorrowed<Object>(managed, async, reference, stack));
+        final LeakDetector leaks = new LeakDetector(1);
+        valid.leak = leaks.track(valid, async, reference, null);
+        valid.release();
 
-        final AsyncCaller caller = mock(AsyncCaller.class);
+        // simulate the borrowed reference being collected.
+        valid.leak.enqueue();
+        leaks.poll();
 
-        doReturn(caller).when(async).caller();
-        valid.finalize();
-        verify(async).caller();
-        verify(caller).referenceLeaked(reference, stack);
+        verify(caller, never()).referenceLeaked(reference, stack);
     }
-}
\ No newline at end of file
+}
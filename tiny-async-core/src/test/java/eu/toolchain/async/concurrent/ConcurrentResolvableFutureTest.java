@@ -2,27 +2,36 @@ package eu.toolchain.async.concurrent;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.Matchers.anyInt;
-import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
 import eu.toolchain.async.AsyncCaller;
 import eu.toolchain.async.AsyncFramework;
 import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ExecutorAsyncCaller;
 import eu.toolchain.async.FutureCancelled;
 import eu.toolchain.async.FutureDone;
 import eu.toolchain.async.FutureFailed;
 import eu.toolchain.async.FutureFinished;
 import eu.toolchain.async.FutureResolved;
-import eu.toolchain.async.concurrent.ConcurrentResolvableFuture;
 
 public class ConcurrentResolvableFutureTest {
     private static final Object result = new Object();
@@ -37,7 +46,6 @@ public class ConcurrentResolvableFutureTest {
 
     private AsyncFramework async;
     private AsyncCaller caller;
-    private ConcurrentResolvableFuture.S sync;
     private ConcurrentResolvableFuture<Object> future;
 
     @SuppressWarnings("unchecked")
@@ -51,8 +59,7 @@ public class ConcurrentResolvableFutureTest {
         failed = mock(FutureFailed.class);
         async = mock(AsyncFramework.class);
         caller = mock(AsyncCaller.class);
-        sync = mock(ConcurrentResolvableFuture.S.class);
-        future = new ConcurrentResolvableFuture<>(async, caller, sync);
+        future = new ConcurrentResolvableFuture<>(async, caller);
     }
 
     private void verifyEndState(int resolved, int failed, int cancelled) {
@@ -63,9 +70,6 @@ public class ConcurrentResolvableFutureTest {
 
     @Test
     public void testIsResolved() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.complete(ConcurrentResolvableFuture.RESOLVED, result)).thenReturn(true);
-
         assertFalse(future.isResolved());
         assertFalse(future.isFailed());
         assertFalse(future.isCancelled());
@@ -73,19 +77,22 @@ public class ConcurrentResolvableFutureTest {
 
         assertTrue(future.resolve(result));
 
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
-
         assertTrue(future.isResolved());
         assertFalse(future.isFailed());
         assertFalse(future.isCancelled());
         assertTrue(future.isDone());
+        assertEquals(result, future.getNow());
     }
 
     @Test
-    public void testIsFailed() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.complete(ConcurrentResolvableFuture.FAILED, cause)).thenReturn(true);
+    public void testResolveNull() throws Exception {
+        assertTrue(future.resolve(null));
+        assertTrue(future.isResolved());
+        assertEquals(null, future.getNow());
+    }
 
+    @Test
+    public void testIsFailed() throws Exception {
         assertFalse(future.isResolved());
         assertFalse(future.isFailed());
         assertFalse(future.isCancelled());
@@ -93,19 +100,15 @@ public class ConcurrentResolvableFutureTest {
 
         assertTrue(future.fail(cause));
 
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.FAILED);
-
         assertFalse(future.isResolved());
         assertTrue(future.isFailed());
         assertFalse(future.isCancelled());
         assertTrue(future.isDone());
+        assertEquals(cause, future.cause());
     }
 
     @Test
     public void testIsCancelled() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.complete(ConcurrentResolvableFuture.CANCELLED)).thenReturn(true);
-
         assertFalse(future.isResolved());
         assertFalse(future.isFailed());
         assertFalse(future.isCancelled());
@@ -113,8 +116,6 @@ public class ConcurrentResolvableFutureTest {
 
         assertTrue(future.cancel());
 
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.CANCELLED);
-
         assertFalse(future.isResolved());
         assertFalse(future.isFailed());
         assertTrue(future.isCancelled());
@@ -123,325 +124,428 @@ public class ConcurrentResolvableFutureTest {
 
     @Test
     public void testResolveAlreadyDone() {
-        when(sync.complete(ConcurrentResolvableFuture.RESOLVED, result)).thenReturn(false);
+        future.on(done);
+        assertTrue(future.cancel());
         assertFalse(future.resolve(result));
-        verifyEndState(0, 0, 0);
+        verifyEndState(0, 0, 1);
     }
 
     @Test
     public void testResolveFireCallbacks() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
         future.on(done);
-        when(sync.complete(ConcurrentResolvableFuture.RESOLVED, result)).thenReturn(true);
         assertTrue(future.resolve(result));
-        verify(caller).resolve(done, result);
         verifyEndState(1, 0, 0);
     }
 
     @Test
     public void testFailAlreadyDone() {
-        when(sync.complete(ConcurrentResolvableFuture.FAILED, result)).thenReturn(false);
+        future.on(done);
+        assertTrue(future.resolve(result));
         assertFalse(future.fail(cause));
-        verifyEndState(0, 0, 0);
+        verifyEndState(1, 0, 0);
     }
 
     @Test
     public void testFailFireCallbacks() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
         future.on(done);
-        when(sync.complete(ConcurrentResolvableFuture.FAILED, cause)).thenReturn(true);
         assertTrue(future.fail(cause));
         verifyEndState(0, 1, 0);
     }
 
     @Test
     public void testCancelAlreadyDone() {
-        when(sync.complete(ConcurrentResolvableFuture.CANCELLED)).thenReturn(false);
+        future.on(done);
+        assertTrue(future.fail(cause));
         assertFalse(future.cancel());
-        verifyEndState(0, 0, 0);
+        verifyEndState(0, 1, 0);
     }
 
     @Test
     public void testCancelFireCallbacks() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
         future.on(done);
-        when(sync.complete(ConcurrentResolvableFuture.CANCELLED)).thenReturn(true);
         assertTrue(future.cancel());
         verifyEndState(0, 0, 1);
     }
 
-    private void verifyBind(int cancel, int state, int poll) {
-        verify(other, times(cancel)).cancel();
-        verify(sync, times(state)).state();
-        verify(sync, times(poll)).poll();
-    }
-
+    @SuppressWarnings("unchecked")
     @Test
-    public void testBind() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        assertEquals(future, future.bind(other));
-        assertTrue(future.callbacks.get(0) instanceof ConcurrentResolvableFuture.AsyncFutureCB);
-        verifyBind(0, 1, 0);
+    public void testCallbacksInvokedInOrder() throws Exception {
+        final FutureDone<Object> first = mock(FutureDone.class);
+        final FutureDone<Object> second = mock(FutureDone.class);
+        final InOrder order = inOrder(caller);
+
+        future.on(first);
+        future.on(second);
+        assertTrue(future.resolve(result));
+
+        order.verify(caller).resolve(first, result);
+        order.verify(caller).resolve(second, result);
     }
 
     @Test
-    public void testBindLateEndState() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.CANCELLED);
-        future.callbacks = null;
-        assertEquals(future, future.bind(other));
-        verifyBind(1, 1, 1);
+    public void testResolveCallbackValue() throws Exception {
+        final ConcurrentResolvableFuture<Object> inner = new ConcurrentResolvableFuture<>(async, caller);
+        inner.on(done);
+
+        /* resolving with an internal state type must be distinguishable from the state itself */
+        final Object value = inner.state;
+        assertTrue(future.resolve(value));
+        assertTrue(future.isResolved());
+        assertEquals(value, future.getNow());
     }
 
     @Test
-    public void testBindCancelled() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.CANCELLED);
+    public void testBind() throws Exception {
         assertEquals(future, future.bind(other));
-        verifyBind(1, 1, 0);
+        assertTrue(future.state instanceof ConcurrentResolvableFuture.AsyncFutureCB);
+        verify(other, times(0)).cancel();
+
+        future.cancel();
+        verify(other).cancel();
     }
 
     @Test
-    public void testBindResolvedAfterAddFail() {
-        /* non-cancel callback */
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
-        future.callbacks = null;
+    public void testBindCancelled() throws Exception {
+        future.cancel();
         assertEquals(future, future.bind(other));
-        verifyBind(0, 1, 1);
+        verify(other).cancel();
     }
 
     @Test
     public void testBindResolved() {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
+        future.resolve(result);
         assertEquals(future, future.bind(other));
-        verifyBind(0, 1, 0);
-    }
-
-    private void verifyOnFutureDone(int state, int poll, int resolve, int fail, int cancel) {
-        verify(sync, times(state)).state();
-        verify(sync, times(poll)).poll();
-        verify(caller, times(resolve)).resolve(done, result);
-        verify(caller, times(fail)).fail(done, cause);
-        verify(caller, times(cancel)).cancel(done);
+        verify(other, times(0)).cancel();
     }
 
     @Test
     public void testOnFutureDoneAddCallback() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        doThrow(new RuntimeException()).when(sync).result(anyInt());
         assertEquals(future, future.on(done));
-        assertTrue(future.callbacks.get(0) instanceof ConcurrentResolvableFuture.DoneCB);
-        verifyOnFutureDone(1, 0, 0, 0, 0);
-    }
-
-    @Test
-    public void testOnFutureDoneResolvedAfterAddFail() {
-        /* non-cancel callback */
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
-        when(sync.result(ConcurrentResolvableFuture.RESOLVED)).thenReturn(result);
-        future.callbacks = null;
-        assertEquals(future, future.on(done));
-        verifyOnFutureDone(1, 1, 1, 0, 0);
+        assertTrue(future.state instanceof ConcurrentResolvableFuture.DoneCB);
+        verifyEndState(0, 0, 0);
     }
 
     @Test
     public void testOnFutureDoneResolved() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
-        when(sync.result(ConcurrentResolvableFuture.RESOLVED)).thenReturn(result);
+        future.resolve(result);
         assertEquals(future, future.on(done));
-        verifyOnFutureDone(1, 0, 1, 0, 0);
+        verifyEndState(1, 0, 0);
     }
 
     @Test
     public void testOnFutureDoneFailed() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.FAILED);
-        when(sync.result(ConcurrentResolvableFuture.FAILED)).thenReturn(cause);
+        future.fail(cause);
         assertEquals(future, future.on(done));
-        verifyOnFutureDone(1, 0, 0, 1, 0);
+        verifyEndState(0, 1, 0);
     }
 
     @Test
     public void testOnFutureDoneCancelled() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.CANCELLED);
+        future.cancel();
         assertEquals(future, future.on(done));
-        verifyOnFutureDone(1, 0, 0, 0, 1);
-    }
-
-    @Test
-    public void testOnFutureDoneIllegalState() throws Exception {
-        when(sync.state()).thenReturn(Integer.MAX_VALUE);
-        assertEquals(future, future.on(done));
-        verifyOnFutureDone(1, 0, 0, 0, 0);
-    }
-
-    private void verifyOnFutureCancelled(int state, int poll, int cancel) {
-        verify(sync, times(state)).state();
-        verify(sync, times(poll)).poll();
-        verify(caller, times(cancel)).cancel(cancelled);
+        verifyEndState(0, 0, 1);
     }
 
     @Test
     public void testOnFutureCancelledAddCallback() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        doThrow(new RuntimeException()).when(sync).result(anyInt());
         assertEquals(future, future.on(cancelled));
-        assertTrue(future.callbacks.get(0) instanceof ConcurrentResolvableFuture.CancelledCB);
-        verifyOnFutureCancelled(1, 0, 0);
-    }
-
-    @Test
-    public void testOnFutureCancelledCancelledAfterAddFail() {
-        /* non-cancel callback */
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.CANCELLED);
-        future.callbacks = null;
-        assertEquals(future, future.on(cancelled));
-        verifyOnFutureCancelled(1, 1, 1);
+        assertTrue(future.state instanceof ConcurrentResolvableFuture.CancelledCB);
+        verify(caller, times(0)).cancel(cancelled);
     }
 
     @Test
     public void testOnFutureCancelledCancelled() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.CANCELLED);
+        future.cancel();
         assertEquals(future, future.on(cancelled));
-        verifyOnFutureCancelled(1, 0, 1);
+        verify(caller).cancel(cancelled);
     }
 
     @Test
     public void testOnFutureCancelledOther() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
+        future.resolve(result);
         assertEquals(future, future.on(cancelled));
-        verifyOnFutureCancelled(1, 0, 0);
-    }
-
-    private void verifyOnFutureFinished(int state, int poll, int finished) {
-        verify(sync, times(state)).state();
-        verify(sync, times(poll)).poll();
-        verify(caller, times(finished)).finish(this.finished);
+        verify(caller, times(0)).cancel(cancelled);
     }
 
     @Test
     public void testOnFutureFinishedAddCallback() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        doThrow(new RuntimeException()).when(sync).result(anyInt());
-        assertEquals(future, future.on(finished));
-        assertTrue(future.callbacks.get(0) instanceof ConcurrentResolvableFuture.FinishedCB);
-        verifyOnFutureFinished(1, 0, 0);
-    }
-
-    @Test
-    public void testOnFutureFinishedFinishedAfterAddFail() {
-        /* non-cancel callback */
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
-        future.callbacks = null;
         assertEquals(future, future.on(finished));
-        verifyOnFutureFinished(1, 0, 1);
+        assertTrue(future.state instanceof ConcurrentResolvableFuture.FinishedCB);
+        verify(caller, times(0)).finish(finished);
     }
 
     @Test
     public void testOnFutureFinishedFinished() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
+        future.resolve(result);
         assertEquals(future, future.on(finished));
-        verifyOnFutureFinished(1, 0, 1);
-    }
-
-    private void verifyOnFutureResolved(int state, int poll, int resolved) {
-        verify(sync, times(state)).state();
-        verify(sync, times(poll)).poll();
-        verify(caller, times(resolved)).resolve(this.resolved, result);
+        verify(caller).finish(finished);
     }
 
     @Test
     public void testOnFutureResolvedAddCallback() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        doThrow(new RuntimeException()).when(sync).result(anyInt());
         assertEquals(future, future.on(resolved));
-        assertTrue(future.callbacks.get(0) instanceof ConcurrentResolvableFuture.ResolvedCB);
-        verifyOnFutureResolved(1, 0, 0);
-    }
-
-    @Test
-    public void testFutureResolvedAfterAddFail() {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
-        doReturn(result).when(sync).result(ConcurrentResolvableFuture.RESOLVED);
-        future.callbacks = null;
-        assertEquals(future, future.on(resolved));
-        verifyOnFutureResolved(1, 1, 1);
+        assertTrue(future.state instanceof ConcurrentResolvableFuture.ResolvedCB);
+        verify(caller, times(0)).resolve(resolved, result);
     }
 
     @Test
     public void testOnFutureResolvedResolved() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
-        doReturn(result).when(sync).result(ConcurrentResolvableFuture.RESOLVED);
+        future.resolve(result);
         assertEquals(future, future.on(resolved));
-        verifyOnFutureResolved(1, 0, 1);
+        verify(caller).resolve(resolved, result);
     }
 
     @Test
     public void testOnFutureResolvedOther() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.CANCELLED);
-        doThrow(new RuntimeException()).when(sync).result(anyInt());
+        future.cancel();
         assertEquals(future, future.on(resolved));
-        verifyOnFutureResolved(1, 0, 0);
-    }
-
-    private void verifyOnFutureFailed(int state, int poll, int failed) {
-        verify(sync, times(state)).state();
-        verify(sync, times(poll)).poll();
-        verify(caller, times(failed)).fail(this.failed, cause);
+        verify(caller, times(0)).resolve(resolved, result);
     }
 
     @Test
     public void testOnFutureFailedAddCallback() throws Exception {
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        doThrow(new RuntimeException()).when(sync).result(anyInt());
         assertEquals(future, future.on(failed));
-        assertTrue(future.callbacks.get(0) instanceof ConcurrentResolvableFuture.FailedCB);
-        verifyOnFutureFailed(1, 0, 0);
+        assertTrue(future.state instanceof ConcurrentResolvableFuture.FailedCB);
+        verify(caller, times(0)).fail(failed, cause);
     }
 
     @Test
-    public void testOnFutureCFailedFailedAfterAddFail() {
-        /* non-cancel callback */
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RUNNING);
-        when(sync.poll()).thenReturn(ConcurrentResolvableFuture.FAILED);
-        doReturn(cause).when(sync).result(ConcurrentResolvableFuture.FAILED);
-        future.callbacks = null;
+    public void testOnFutureFailedFailed() throws Exception {
+        future.fail(cause);
         assertEquals(future, future.on(failed));
-        verifyOnFutureFailed(1, 1, 1);
+        verify(caller).fail(failed, cause);
     }
 
     @Test
-    public void testOnFutureFailedFailed() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.FAILED);
-        doReturn(cause).when(sync).result(ConcurrentResolvableFuture.FAILED);
+    public void testOnFutureFailedOther() throws Exception {
+        future.resolve(result);
         assertEquals(future, future.on(failed));
-        verifyOnFutureFailed(1, 0, 1);
+        verify(caller, times(0)).fail(failed, cause);
     }
 
     @Test
-    public void testOnFutureFailedOther() throws Exception {
-        // resolve
-        when(sync.state()).thenReturn(ConcurrentResolvableFuture.RESOLVED);
-        doThrow(new RuntimeException()).when(sync).result(anyInt());
-        assertEquals(future, future.on(failed));
-        verifyOnFutureFailed(1, 0, 0);
+    public void testGetBlocking() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+
+        final Thread resolver = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    started.await();
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                future.resolve(result);
+            }
+        });
+
+        resolver.start();
+        started.countDown();
+
+        assertEquals(result, future.get());
+        resolver.join();
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testGetFailed() throws Exception {
+        future.fail(cause);
+        future.get();
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testGetCancelled() throws Exception {
+        future.cancel();
+        future.get();
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testGetTimeout() throws Exception {
+        future.get(1, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testGetTimeoutThenResolve() throws Exception {
+        try {
+            future.get(1, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // expected
+        }
+
+        /* the abandoned waiter must not prevent later completion */
+        future.on(done);
+        assertTrue(future.resolve(result));
+        verifyEndState(1, 0, 0);
+        assertEquals(result, future.get(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testGetTimeoutUnlinksWaiter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try {
+                future.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // expected
+            }
+        }
+
+        assertNull(future.state);
+
+        future.on(done);
+
+        try {
+            future.get(1, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // expected
+        }
+
+        // abandoned waiters below the listener are skipped by the next push.
+        future.on(done);
+        assertNull(((ConcurrentResolvableFuture.CB<?>) future.state).next.next);
+    }
+
+    @Test
+    public void testResultPublishedWithState() throws Exception {
+        final int readers = 2;
+        final int iterations = 100;
+
+        for (int i = 0; i < iterations; i++) {
+            final ConcurrentResolvableFuture<Object> f = new ConcurrentResolvableFuture<>(async, caller);
+            final Object value = new Object();
+            final CountDownLatch latch = new CountDownLatch(readers);
+            final Thread[] threads = new Thread[readers];
+            final Throwable[] errors = new Throwable[readers];
+
+            for (int r = 0; r < readers; r++) {
+                final int index = r;
+
+                threads[r] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        latch.countDown();
+
+                        try {
+                            while (!f.isDone())
+                                Thread.yield();
+
+                            /* a reader observing the end state must always see the result */
+                            assertEquals(value, f.getNow());
+                        } catch (Throwable e) {
+                            errors[index] = e;
+                        }
+                    }
+                });
+
+                threads[r].start();
+            }
+
+            latch.await();
+            f.resolve(value);
+
+            for (int r = 0; r < readers; r++) {
+                threads[r].join();
+
+                if (errors[r] != null)
+                    throw new AssertionError(errors[r]);
+            }
+        }
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void testGetInterrupted() throws Exception {
+        Thread.currentThread().interrupt();
+        future.get();
+    }
+
+    @Test
+    public void testExecutorCallerSubmitsCallbacks() throws Exception {
+        final ExecutorService executor = mock(ExecutorService.class);
+        final ConcurrentResolvableFuture<Object> f = new ConcurrentResolvableFuture<>(async, new ExecutorAsyncCaller(
+                executor, caller));
+
+        f.on(done);
+        f.on(finished);
+        f.on(failed);
+        f.resolve(result);
+
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(2)).execute(captor.capture());
+
+        /* the callback nodes themselves are submitted */
+        assertTrue(captor.getAllValues().get(0) instanceof ConcurrentResolvableFuture.DoneCB);
+        assertTrue(captor.getAllValues().get(1) instanceof ConcurrentResolvableFuture.FinishedCB);
+
+        verify(caller, never()).resolve(done, result);
+
+        for (final Runnable r : captor.getAllValues())
+            r.run();
+
+        verify(caller).resolve(done, result);
+        verify(caller).finish(finished);
+        verify(caller, never()).fail(any(FutureFailed.class), any(Throwable.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testExecutorCallerBatched() throws Exception {
+        final ExecutorService executor = mock(ExecutorService.class);
+        final ConcurrentResolvableFuture<Object> f = new ConcurrentResolvableFuture<>(async, new ExecutorAsyncCaller(
+                executor, caller, 2));
+
+        final FutureDone<Object> first = mock(FutureDone.class);
+        final FutureDone<Object> second = mock(FutureDone.class);
+        final FutureDone<Object> third = mock(FutureDone.class);
+
+        f.on(first);
+        f.on(failed);
+        f.on(second);
+        f.on(third);
+        f.resolve(result);
+
+        /* the failed listener is not interested, the remaining three are submitted as two tasks */
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(2)).execute(captor.capture());
+
+        for (final Runnable r : captor.getAllValues())
+            r.run();
+
+        final InOrder order = inOrder(caller);
+        order.verify(caller).resolve(first, result);
+        order.verify(caller).resolve(second, result);
+        order.verify(caller).resolve(third, result);
+        verify(caller, never()).fail(any(FutureFailed.class), any(Throwable.class));
+    }
+
+    @Test
+    public void testExecutorCallerBatchedWakesWaiters() throws Exception {
+        final ExecutorService executor = mock(ExecutorService.class);
+        final ConcurrentResolvableFuture<Object> f = new ConcurrentResolvableFuture<>(async, new ExecutorAsyncCaller(
+                executor, caller, Integer.MAX_VALUE));
+
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        final Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    f.get();
+                    latch.countDown();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        waiter.start();
+
+        while (f.state == null)
+            Thread.yield();
+
+        f.on(done);
+        f.resolve(result);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        verify(executor).execute(any(Runnable.class));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package eu.toolchain.async.concurrent;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.toolchain.async.AsyncCaller;
+import eu.toolchain.async.AsyncFramework;
+
+public class LeakDetectorTest {
+    private final Object object = new Object();
+    private final Object reference = new Object();
+    private final StackTraceElement[] stack = new StackTraceElement[0];
+
+    private AsyncFramework async;
+    private AsyncCaller caller;
+
+    @Before
+    public void setup() {
+        async = mock(AsyncFramework.class);
+        caller = mock(AsyncCaller.class);
+        doReturn(caller).when(async).caller();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSampling() {
+        new LeakDetector(-1);
+    }
+
+    @Test
+    public void testDisabled() {
+        assertNull(new LeakDetector(0).track(object, async, reference, null));
+        verify(async, never()).caller();
+    }
+
+    @Test
+    public void testReportLeak() {
+        final LeakDetector leaks = new LeakDetector(1);
+        final LeakDetector.Tracker tracker = leaks.track(object, async, reference, null);
+        assertNotNull(tracker);
+
+        // simulate the tracked object being collected.
+        tracker.enqueue();
+        leaks.poll();
+        leaks.poll();
+
+        verify(caller, times(1)).referenceLeaked(reference, stack);
+    }
+
+    @Test
+    public void testClosedNotReported() {
+        final LeakDetector leaks = new LeakDetector(1);
+        final LeakDetector.Tracker tracker = leaks.track(object, async, reference, null);
+
+        tracker.close();
+        tracker.enqueue();
+        leaks.poll();
+
+        verify(caller, never()).referenceLeaked(reference, stack);
+    }
+}
@@ -0,0 +1,187 @@
+package eu.toolchain.async.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.toolchain.async.concurrent.ConcurrentManaged.Generation;
+import eu.toolchain.async.concurrent.ConcurrentManaged.ValidBorrowed;
+
+public class LeaseTracesTest {
+    private ConcurrentManaged<Object> managed;
+    private Generation<Object> generation;
+    private LeaseTraces underTest;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() {
+        managed = mock(ConcurrentManaged.class);
+        generation = new Generation<Object>(new Object());
+        underTest = new LeaseTraces();
+    }
+
+    private ValidBorrowed<Object> borrow() {
+        final ValidBorrowed<Object> b = new ValidBorrowed<Object>(managed, generation, null);
+        underTest.add(b);
+        return b;
+    }
+
+    @Test
+    public void testOutstanding() {
+        final ValidBorrowed<Object> a = borrow();
+        final ValidBorrowed<Object> b = borrow();
+
+        a.release();
+
+        final List<ValidBorrowed<?>> outstanding = underTest.outstanding();
+        assertEquals(1, outstanding.size());
+        assertEquals(b, outstanding.get(0));
+    }
+
+    @Test
+    public void testCompact() {
+        final List<ValidBorrowed<Object>> borrowed = new ArrayList<>();
+
+        for (int i = 0; i < 16; i++)
+            borrowed.add(borrow());
+
+        for (final ValidBorrowed<Object> b : borrowed)
+            b.release();
+
+        final LeaseTraces.Buffer buffer = underTest.buffer();
+        borrow();
+
+        // released entries are dropped instead of growing the buffer.
+        assertEquals(16, buffer.capacity());
+        assertEquals(1, underTest.outstanding().size());
+
+        for (int i = 0; i < 16; i++)
+            borrow();
+
+        assertEquals(32, buffer.capacity());
+        assertEquals(17, underTest.outstanding().size());
+    }
+
+    @Test
+    public void testAcrossThreads() throws Exception {
+        final List<ValidBorrowed<Object>> borrowed = new ArrayList<>();
+
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                borrowed.add(borrow());
+            }
+        });
+
+        thread.start();
+        thread.join();
+
+        borrow();
+        assertEquals(2, underTest.outstanding().size());
+
+        // released on a different thread than it was borrowed on.
+        borrowed.get(0).release();
+        assertEquals(1, underTest.outstanding().size());
+    }
+
+    @Test
+    public void testReleaseClearsSlot() {
+        final ValidBorrowed<Object> a = borrow();
+        final ValidBorrowed<Object> b = borrow();
+        final LeaseTraces.Buffer buffer = underTest.buffer();
+
+        assertEquals(2, buffer.retained());
+
+        // released references are not kept reachable by an idle buffer.
+        a.release();
+        assertEquals(1, buffer.retained());
+        b.release();
+        assertEquals(0, buffer.retained());
+    }
+
+    @Test
+    public void testReleaseAfterCompact() {
+        final List<ValidBorrowed<Object>> borrowed = new ArrayList<>();
+
+        for (int i = 0; i < 16; i++)
+            borrowed.add(borrow());
+
+        borrowed.get(0).release();
+
+        // compacts, moving every outstanding reference one slot down.
+        borrow();
+
+        final LeaseTraces.Buffer buffer = underTest.buffer();
+        assertEquals(16, buffer.retained());
+
+        borrowed.get(15).release();
+        assertEquals(15, buffer.retained());
+    }
+
+    @Test
+    public void testReleaseDuringCompact() throws Exception {
+        final BlockingQueue<ValidBorrowed<Object>> queue = new LinkedBlockingQueue<>();
+        final ValidBorrowed<Object> end = new ValidBorrowed<Object>(managed, generation, null);
+
+        final Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ValidBorrowed<Object> b;
+
+                    while ((b = queue.take()) != end)
+                        b.release();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        releaser.start();
+
+        // the owner keeps compacting while the releaser clears slots.
+        for (int i = 0; i < 100000; i++)
+            queue.add(borrow());
+
+        queue.add(end);
+        releaser.join();
+
+        assertEquals(0, underTest.buffer().retained());
+    }
+
+    @Test
+    public void testPruneDeadThreads() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    borrow().release();
+                }
+            });
+
+            thread.start();
+            thread.join();
+        }
+
+        assertTrue(underTest.registered() < 64);
+    }
+
+    @Test
+    public void testStack() {
+        assertEquals(0, LeaseTraces.stack(null).length);
+
+        final StackTraceElement[] stack = LeaseTraces.stack(LeaseTraces.capture());
+
+        assertTrue(stack.length <= LeaseTraces.DEFAULT_STACK_DEPTH);
+        assertEquals(LeaseTracesTest.class.getName(), stack[0].getClassName());
+        assertEquals("testStack", stack[0].getMethodName());
+    }
+}
@@ -0,0 +1,42 @@
+package eu.toolchain.async.concurrent;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class StripedCounterTest {
+    @Test
+    public void testSum() {
+        final StripedCounter counter = new StripedCounter(4);
+        assertEquals(0, counter.sum());
+        counter.increment();
+        counter.increment();
+        assertEquals(2, counter.sum());
+        counter.decrement();
+        assertEquals(1, counter.sum());
+    }
+
+    @Test
+    public void testAcrossThreads() throws Exception {
+        final StripedCounter counter = new StripedCounter(4);
+        final int count = 1000;
+
+        final Thread increments = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++)
+                    counter.increment();
+            }
+        });
+
+        increments.start();
+        increments.join();
+
+        assertEquals(count, counter.sum());
+
+        for (int i = 0; i < count; i++)
+            counter.decrement();
+
+        assertEquals(0, counter.sum());
+    }
+}
@@ -0,0 +1,123 @@
+package eu.toolchain.async.helper;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.toolchain.async.ResolvableFuture;
+
+public class CallHelperTest {
+    private static final Object result = new Object();
+    private static final Exception e = new Exception();
+
+    private Callable<Object> callable;
+    private ResolvableFuture<Object> future;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() throws Exception {
+        callable = mock(Callable.class);
+        future = mock(ResolvableFuture.class);
+        when(callable.call()).thenReturn(result);
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        new CallHelper<Object>(callable, future, false).run();
+        verify(future).resolve(result);
+    }
+
+    @Test
+    public void testRunThrows() throws Exception {
+        when(callable.call()).thenThrow(e);
+        new CallHelper<Object>(callable, future, false).run();
+        verify(future).fail(e);
+    }
+
+    @Test
+    public void testRunFutureDone() throws Exception {
+        when(future.isDone()).thenReturn(true);
+        new CallHelper<Object>(callable, future, false).run();
+        verify(callable, never()).call();
+    }
+
+    @Test
+    public void testCancelledBeforeRun() throws Exception {
+        final CallHelper<Object> helper = new CallHelper<Object>(callable, future, true);
+        helper.cancelled();
+        helper.run();
+        verify(callable, never()).call();
+        verify(future, never()).resolve(any());
+    }
+
+    @Test
+    public void testInterruptOnCancel() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+
+        final CallHelper<Object> helper = new CallHelper<Object>(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                running.countDown();
+
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+
+                return result;
+            }
+        }, future, true);
+
+        final Thread thread = new Thread(helper);
+        thread.start();
+
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        helper.cancelled();
+
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        thread.join();
+        verify(future).fail(any(InterruptedException.class));
+    }
+
+    @Test
+    public void testNoInterruptOnCancel() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final boolean[] wasInterrupted = new boolean[1];
+
+        final CallHelper<Object> helper = new CallHelper<Object>(new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                running.countDown();
+                cancelled.await();
+                wasInterrupted[0] = Thread.currentThread().isInterrupted();
+                return result;
+            }
+        }, future, false);
+
+        final Thread thread = new Thread(helper);
+        thread.start();
+
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        helper.cancelled();
+        cancelled.countDown();
+
+        thread.join();
+        assertFalse(wasInterrupted[0]);
+        verify(future).resolve(result);
+    }
+}
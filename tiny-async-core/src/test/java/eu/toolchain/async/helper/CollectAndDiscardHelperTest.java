@@ -4,6 +4,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -58,4 +59,16 @@ public class CollectAndDiscardHelperTest {
 
         verifyTarget(0, 0, 1);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFailFast() throws Exception {
+        final CollectAndDiscardHelper<Object> helper = new CollectAndDiscardHelper<Object>(size, target, true);
+
+        helper.failed(cause);
+        verify(target).fail(cause);
+
+        when(target.isDone()).thenReturn(true);
+        helper.cancelled();
+        verify(target).cancel();
+    }
+}
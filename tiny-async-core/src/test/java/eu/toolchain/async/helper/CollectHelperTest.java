@@ -1,5 +1,6 @@
 package eu.toolchain.async.helper;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Mockito.mock;
@@ -7,8 +8,13 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import eu.toolchain.async.Collector;
 import eu.toolchain.async.ResolvableFuture;
@@ -76,6 +82,63 @@ public class CollectHelperTest {
         verify(target).resolve(transformed);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testResultsPassedToCollector() throws Exception {
+        final CollectHelper<Object, Object> helper = new CollectHelper<Object, Object>(3, collector, target);
+        final Object other = new Object();
+
+        helper.resolved(result);
+        helper.resolved(null);
+        helper.resolved(other);
+
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(collector).collect(captor.capture());
+        assertEquals(Arrays.asList(result, null, other), new ArrayList<Object>(captor.getValue()));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSlots() throws Exception {
+        final CollectHelper<Object, Object> helper = new CollectHelper<Object, Object>(3, collector, target);
+        final Object other = new Object();
+
+        helper.slot(2).resolved(other);
+        helper.slot(0).resolved(result);
+        helper.slot(1).resolved(null);
+
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(collector).collect(captor.capture());
+        assertEquals(Arrays.asList(result, null, other), new ArrayList<Object>(captor.getValue()));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSlotOutOfBounds() throws Exception {
+        new CollectHelper<Object, Object>(2, collector, target).slot(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testFailFast() throws Exception {
+        final CollectHelper<Object, Object> helper = new CollectHelper<Object, Object>(2, collector, target, true);
+
+        helper.failed(e);
+        verify(target).fail(e);
+
+        when(target.isDone()).thenReturn(true);
+        helper.cancelled();
+
+        verify(collector, never()).collect(anyCollection());
+    }
+
+    @Test
+    public void testFailFastCancelled() throws Exception {
+        final CollectHelper<Object, Object> helper = new CollectHelper<Object, Object>(2, collector, target, true);
+
+        helper.cancelled();
+        verify(target).cancel();
+    }
+
     @Test
     public void testCollectThrows() throws Exception {
         final CollectHelper<Object, Object> helper = new CollectHelper<Object, Object>(1, collector, target);
@@ -99,4 +99,50 @@ public class CollectStreamHelperTest {
         verify(caller).resolve(collector, result);
         verify(target).fail(any(Exception.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testConcurrentCompletions() throws Exception {
+        final int threads = 4;
+        final int perThread = 3000;
+
+        final CollectStreamHelper<Object, Object> helper = new CollectStreamHelper<Object, Object>(caller, threads
+                * perThread, collector, target);
+
+        when(collector.end(threads * 1000, threads * 1000, threads * 1000)).thenReturn(transformed);
+
+        final Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            switch (i % 3) {
+                            case 0:
+                                helper.resolved(result);
+                                break;
+                            case 1:
+                                helper.failed(e);
+                                break;
+                            default:
+                                helper.cancelled();
+                                break;
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+
+            workers[t].start();
+        }
+
+        for (final Thread worker : workers)
+            worker.join();
+
+        verify(collector).end(threads * 1000, threads * 1000, threads * 1000);
+        verify(target).resolve(transformed);
+    }
+}
@@ -0,0 +1,174 @@
+package eu.toolchain.async.helper;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+import eu.toolchain.async.LazyTransform;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.Transform;
+import eu.toolchain.async.TransformException;
+
+public class FusedTransformHelperTest {
+    private static final Object result = new Object();
+    private static final Object transformed = new Object();
+    private static final Object second = new Object();
+
+    private static final Exception e = new Exception();
+    private static final Throwable cause = new Exception();
+
+    private Transform<Object, Object> transform;
+    private Transform<Object, Object> secondTransform;
+    private Transform<Throwable, Object> errorTransform;
+    private Transform<Void, Object> cancelledTransform;
+    private LazyTransform<Object, Object> lazyTransform;
+
+    private AsyncFuture<Object> f;
+    private ResolvableFuture<Object> target;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() throws Exception {
+        transform = mock(Transform.class);
+        secondTransform = mock(Transform.class);
+        errorTransform = mock(Transform.class);
+        cancelledTransform = mock(Transform.class);
+        lazyTransform = mock(LazyTransform.class);
+
+        f = mock(AsyncFuture.class);
+        target = mock(ResolvableFuture.class);
+
+        when(transform.transform(result)).thenReturn(transformed);
+        when(secondTransform.transform(transformed)).thenReturn(second);
+        when(errorTransform.transform(cause)).thenReturn(transformed);
+        when(cancelledTransform.transform(null)).thenReturn(transformed);
+        when(lazyTransform.transform(result)).thenReturn(f);
+    }
+
+    private FusedTransformHelper helper(Object... steps) {
+        final Object[] transforms = new Object[steps.length / 2];
+        final byte[] types = new byte[steps.length / 2];
+
+        for (int i = 0; i < transforms.length; i++) {
+            types[i] = (Byte) steps[i * 2];
+            transforms[i] = steps[i * 2 + 1];
+        }
+
+        return new FusedTransformHelper(transforms, types, transforms.length, target);
+    }
+
+    @Test
+    public void testResolvedChain() throws Exception {
+        helper(FusedTransformHelper.TRANSFORM, transform, FusedTransformHelper.CATCH_FAILED, errorTransform,
+                FusedTransformHelper.TRANSFORM, secondTransform).resolved(result);
+
+        verify(transform).transform(result);
+        verify(errorTransform, never()).transform(any(Throwable.class));
+        verify(secondTransform).transform(transformed);
+        verify(target).resolve(second);
+    }
+
+    @Test
+    public void testResolvedThrows() throws Exception {
+        when(transform.transform(result)).thenThrow(e);
+
+        helper(FusedTransformHelper.TRANSFORM, transform, FusedTransformHelper.TRANSFORM, secondTransform)
+                .resolved(result);
+
+        verify(secondTransform, never()).transform(any());
+        verify(target).fail(any(TransformException.class));
+    }
+
+    @Test
+    public void testFailedCaught() throws Exception {
+        helper(FusedTransformHelper.TRANSFORM, transform, FusedTransformHelper.CATCH_FAILED, errorTransform,
+                FusedTransformHelper.TRANSFORM, secondTransform).failed(cause);
+
+        verify(transform, never()).transform(any());
+        verify(errorTransform).transform(cause);
+        verify(target).resolve(second);
+    }
+
+    @Test
+    public void testFailedPassThrough() throws Exception {
+        helper(FusedTransformHelper.TRANSFORM, transform, FusedTransformHelper.CATCH_CANCELLED, cancelledTransform)
+                .failed(cause);
+
+        verify(target).fail(cause);
+    }
+
+    @Test
+    public void testCancelledCaught() throws Exception {
+        helper(FusedTransformHelper.CATCH_FAILED, errorTransform, FusedTransformHelper.CATCH_CANCELLED,
+                cancelledTransform).cancelled();
+
+        verify(cancelledTransform).transform(null);
+        verify(target).resolve(transformed);
+    }
+
+    @Test
+    public void testCancelledPassThrough() throws Exception {
+        helper(FusedTransformHelper.TRANSFORM, transform).cancelled();
+        verify(target).cancel();
+    }
+
+    @Test
+    public void testLazyCompleted() throws Exception {
+        when(f.isDone()).thenReturn(true);
+        when(f.isResolved()).thenReturn(true);
+        doReturn(transformed).when(f).getNow();
+
+        helper(FusedTransformHelper.LAZY_TRANSFORM, lazyTransform, FusedTransformHelper.TRANSFORM, secondTransform)
+                .resolved(result);
+
+        verify(f, never()).on(any(FutureDone.class));
+        verify(target).resolve(second);
+    }
+
+    @Test
+    public void testLazyCompletedFailed() throws Exception {
+        when(f.isDone()).thenReturn(true);
+        when(f.isFailed()).thenReturn(true);
+        when(f.cause()).thenReturn(cause);
+
+        helper(FusedTransformHelper.LAZY_TRANSFORM, lazyTransform, FusedTransformHelper.CATCH_FAILED, errorTransform)
+                .resolved(result);
+
+        verify(target).resolve(transformed);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testLazyPending() throws Exception {
+        when(f.isDone()).thenReturn(false);
+
+        helper(FusedTransformHelper.LAZY_TRANSFORM, lazyTransform, FusedTransformHelper.TRANSFORM, secondTransform)
+                .resolved(result);
+
+        final ArgumentCaptor<FutureDone> captor = ArgumentCaptor.forClass(FutureDone.class);
+        verify(f).on(captor.capture());
+        verify(target, never()).resolve(any());
+
+        captor.getValue().resolved(transformed);
+        verify(target, times(1)).resolve(second);
+    }
+
+    @Test
+    public void testLazyThrows() throws Exception {
+        when(lazyTransform.transform(result)).thenThrow(e);
+
+        helper(FusedTransformHelper.LAZY_TRANSFORM, lazyTransform).resolved(result);
+
+        verify(target).fail(e);
+    }
+}
@@ -0,0 +1,146 @@
+package eu.toolchain.async.helper;
+
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.toolchain.async.AsyncCaller;
+import eu.toolchain.async.DirectAsyncCaller;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.SerializedCollectStreamHelper;
+import eu.toolchain.async.StreamCollector;
+
+public class SerializedCollectStreamHelperTest {
+    private AsyncCaller caller;
+    private StreamCollector<Object, Object> collector;
+    private ResolvableFuture<Object> target;
+
+    private final Object transformed = new Object();
+    private final Object result = new Object();
+    private final Exception e = new Exception();
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() {
+        caller = mock(AsyncCaller.class);
+        collector = mock(StreamCollector.class);
+        target = mock(ResolvableFuture.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSize() {
+        new SerializedCollectStreamHelper<Object, Object>(caller, 0, collector, target);
+    }
+
+    @Test
+    public void testMixed() throws Exception {
+        final SerializedCollectStreamHelper<Object, Object> helper = new SerializedCollectStreamHelper<Object, Object>(
+                caller, 3, collector, target);
+
+        when(collector.end(1, 1, 1)).thenReturn(transformed);
+
+        helper.resolved(result);
+        verify(caller).resolve(collector, result);
+
+        helper.failed(e);
+        verify(caller).fail(collector, e);
+        verify(target, never()).resolve(transformed);
+
+        helper.cancelled();
+        verify(caller).cancel(collector);
+        verify(collector).end(1, 1, 1);
+        verify(target).resolve(transformed);
+    }
+
+    @Test
+    public void testEndThrows() throws Exception {
+        final SerializedCollectStreamHelper<Object, Object> helper = new SerializedCollectStreamHelper<Object, Object>(
+                caller, 1, collector, target);
+
+        when(collector.end(1, 0, 0)).thenThrow(e);
+
+        helper.resolved(result);
+        verify(caller).resolve(collector, result);
+        verify(target).fail(any(Exception.class));
+    }
+
+    @Test
+    public void testConcurrentCompletions() throws Exception {
+        final int threads = 4;
+        final int perThread = 10000;
+
+        final AtomicBoolean overlapped = new AtomicBoolean();
+
+        /* not thread-safe on purpose, any concurrent invocation would lose updates */
+        final StreamCollector<Object, Object> counting = new StreamCollector<Object, Object>() {
+            private boolean inside = false;
+            private int count = 0;
+
+            @Override
+            public void resolved(Object result) throws Exception {
+                enter();
+                count++;
+                inside = false;
+            }
+
+            @Override
+            public void failed(Throwable cause) throws Exception {
+            }
+
+            @Override
+            public void cancelled() throws Exception {
+            }
+
+            @Override
+            public Object end(int resolved, int failed, int cancelled) throws Exception {
+                return count;
+            }
+
+            private void enter() {
+                if (inside)
+                    overlapped.set(true);
+
+                inside = true;
+            }
+        };
+
+        final SerializedCollectStreamHelper<Object, Object> helper = new SerializedCollectStreamHelper<Object, Object>(
+                new DirectAsyncCaller() {
+                    @Override
+                    protected void internalError(String what, Throwable e) {
+                    }
+                }, threads * perThread, counting, target);
+
+        final Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < perThread; i++)
+                            helper.resolved(result);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+
+            workers[t].start();
+        }
+
+        for (final Thread worker : workers)
+            worker.join();
+
+        assertFalse(overlapped.get());
+        verify(target).resolve(threads * perThread);
+    }
+}
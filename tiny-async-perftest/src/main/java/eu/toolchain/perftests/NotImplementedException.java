@@ -1,4 +0,0 @@
-package eu.toolchain.perftests;
-
-public class NotImplementedException extends Exception {
-}
\ No newline at end of file
@@ -1,7 +0,0 @@
-package eu.toolchain.perftests;
-
-public interface TestCase {
-    public void tiny() throws Exception;
-
-    public void guava() throws Exception;
-}
\ No newline at end of file
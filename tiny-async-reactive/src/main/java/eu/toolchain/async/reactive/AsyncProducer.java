@@ -0,0 +1,22 @@
+package eu.toolchain.async.reactive;
+
+import eu.toolchain.async.AsyncFuture;
+
+/**
+ * A pull-based source of asynchronous values, like the pages of a database scan.
+ *
+ * The producer is never invoked concurrently, and {@link #next()} is not called again until the future returned by the
+ * previous call has completed.
+ *
+ * @param <T> The type of the produced values.
+ */
+public interface AsyncProducer<T> {
+    /**
+     * Produce the next value.
+     *
+     * @return A future that is resolved with the next value, or resolved with {@code null} when there are no more
+     *         values.
+     * @throws Exception if unable to produce the next value, this will terminate the stream with the given error.
+     */
+    public AsyncFuture<? extends T> next() throws Exception;
+}
@@ -0,0 +1,259 @@
+package eu.toolchain.async.reactive;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureDone;
+
+/**
+ * A publisher that pulls values from an {@link AsyncProducer}, as they are requested by its subscriber.
+ *
+ * <p>
+ * At most one value is being produced at a time, and only while the subscriber has outstanding demand. Memory usage is
+ * therefore constant, regardless of how many values the producer ends up producing.
+ * </p>
+ *
+ * <p>
+ * Since a producer is stateful, the publisher only accepts a single subscriber. Any subsequent subscriber is
+ * immediately signalled an {@link IllegalStateException}.
+ * </p>
+ *
+ * <p>
+ * All signals to the subscriber are emitted from a drain loop that only one thread runs at a time, so values produced
+ * by futures that complete synchronously do not grow the stack.
+ * </p>
+ *
+ * @param <T> The type of the published values.
+ */
+public class AsyncPublisher<T> implements Publisher<T> {
+    private final AsyncProducer<T> producer;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    public AsyncPublisher(final AsyncProducer<T> producer) {
+        if (producer == null)
+            throw new NullPointerException("producer");
+
+        this.producer = producer;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super T> subscriber) {
+        if (subscriber == null)
+            throw new NullPointerException("subscriber");
+
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(EmptySubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("publisher only supports a single subscriber"));
+            return;
+        }
+
+        final ProducerSubscription<T> subscription = new ProducerSubscription<T>(producer, subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    static final class ProducerSubscription<T> implements Subscription, FutureDone<T> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<ProducerSubscription> WIP = AtomicIntegerFieldUpdater
+                .newUpdater(ProducerSubscription.class, "wip");
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicLongFieldUpdater<ProducerSubscription> REQUESTED = AtomicLongFieldUpdater
+                .newUpdater(ProducerSubscription.class, "requested");
+
+        private final AsyncProducer<T> producer;
+
+        /* only accessed from within the drain loop, dropped when terminated */
+        private Subscriber<? super T> subscriber;
+
+        private volatile int wip = 0;
+        private volatile long requested = 0;
+        private volatile boolean cancelled = false;
+
+        /* handed over from the completing future to the drain loop */
+        private volatile T value;
+        private volatile Throwable error;
+        private volatile boolean completed = false;
+
+        /* the future currently being produced, if any */
+        private volatile AsyncFuture<? extends T> current;
+
+        /* only accessed from within the drain loop */
+        private boolean producing = false;
+        private boolean done = false;
+
+        ProducerSubscription(final AsyncProducer<T> producer, final Subscriber<? super T> subscriber) {
+            this.producer = producer;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("request must be positive, got " + n);
+                drain();
+                return;
+            }
+
+            while (true) {
+                final long r = requested;
+                final long next = r + n < 0 ? Long.MAX_VALUE : r + n;
+
+                if (REQUESTED.compareAndSet(this, r, next))
+                    break;
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+
+            final AsyncFuture<? extends T> current = this.current;
+
+            if (current != null)
+                current.cancel();
+
+            drain();
+        }
+
+        @Override
+        public void resolved(final T result) {
+            if (result == null) {
+                completed = true;
+            } else {
+                value = result;
+            }
+
+            drain();
+        }
+
+        @Override
+        public void failed(final Throwable cause) {
+            error = cause;
+            drain();
+        }
+
+        @Override
+        public void cancelled() {
+            error = new CancellationException("produced future was cancelled");
+            drain();
+        }
+
+        private void drain() {
+            if (WIP.getAndIncrement(this) != 0)
+                return;
+
+            int missed = 1;
+
+            while (true) {
+                if (!done)
+                    drainOnce();
+
+                missed = WIP.addAndGet(this, -missed);
+
+                if (missed == 0)
+                    return;
+            }
+        }
+
+        private void drainOnce() {
+            if (cancelled) {
+                terminate();
+                return;
+            }
+
+            final T v = value;
+
+            if (v != null) {
+                value = null;
+                current = null;
+                producing = false;
+
+                if (requested != Long.MAX_VALUE)
+                    REQUESTED.decrementAndGet(this);
+
+                subscriber.onNext(v);
+            }
+
+            final Throwable e = error;
+
+            if (e != null) {
+                terminate().onError(e);
+                return;
+            }
+
+            if (completed) {
+                terminate().onComplete();
+                return;
+            }
+
+            if (producing || cancelled || requested == 0)
+                return;
+
+            final AsyncFuture<? extends T> future;
+
+            try {
+                future = producer.next();
+            } catch (final Exception ex) {
+                terminate().onError(ex);
+                return;
+            }
+
+            if (future == null) {
+                terminate().onError(new NullPointerException("producer returned a null future"));
+                return;
+            }
+
+            producing = true;
+            current = future;
+
+            // might complete immediately, in which case the current drain loop goes another round. A cancel that missed
+            // the current future is picked up by the next round as well.
+            future.on(this);
+        }
+
+        /**
+         * Stop draining, and drop the subscriber.
+         *
+         * @return The subscriber, for signalling the terminal event.
+         */
+        private Subscriber<? super T> terminate() {
+            final AsyncFuture<? extends T> current = this.current;
+            final Subscriber<? super T> subscriber = this.subscriber;
+
+            done = true;
+            this.current = null;
+            this.subscriber = null;
+            value = null;
+
+            // cancel() might have run before the future being produced was assigned.
+            if (cancelled && current != null)
+                current.cancel();
+
+            return subscriber;
+        }
+    }
+
+    /**
+     * The subscription given to subscribers that are rejected.
+     */
+    enum EmptySubscription implements Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package eu.toolchain.async.reactive;
+
+import org.reactivestreams.Publisher;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.StreamCollector;
+
+/**
+ * Bridges between futures and Reactive Streams.
+ *
+ * On Java 9 and later, the publishers can be converted to and from {@code java.util.concurrent.Flow.Publisher} using
+ * {@code org.reactivestreams.FlowAdapters}.
+ */
+public final class AsyncStreams {
+    private AsyncStreams() {
+    }
+
+    /**
+     * Build a publisher that pulls values from the given producer as they are requested.
+     *
+     * @param producer The producer of values.
+     * @param <T> The type of the published values.
+     * @return A publisher that accepts a single subscriber.
+     * @see AsyncPublisher
+     */
+    public static <T> Publisher<T> publisher(final AsyncProducer<T> producer) {
+        return new AsyncPublisher<T>(producer);
+    }
+
+    /**
+     * Collect all values published by the given publisher, requesting {@code batchSize} values at a time.
+     *
+     * @param async Framework to build the returned future with.
+     * @param publisher The publisher to subscribe to.
+     * @param collector The collector to feed the values into, it is never invoked concurrently.
+     * @param batchSize The number of values to request at a time.
+     * @param <S> The type of the published values.
+     * @param <T> The type the values are being collected into.
+     * @return A future that is resolved with the collected result when the publisher completes. Cancelling it cancels
+     *         the subscription.
+     * @see CollectingSubscriber
+     */
+    public static <S, T> AsyncFuture<T> collect(final AsyncFramework async, final Publisher<? extends S> publisher,
+            final StreamCollector<? super S, ? extends T> collector, final int batchSize) {
+        final ResolvableFuture<T> target = async.future();
+        publisher.subscribe(new CollectingSubscriber<S, T>(collector, target, batchSize));
+        return target;
+    }
+}
@@ -0,0 +1,134 @@
+package eu.toolchain.async.reactive;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import eu.toolchain.async.FutureCancelled;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.StreamCollector;
+
+/**
+ * A subscriber that feeds every value into a {@link StreamCollector}, requesting a fixed number of values at a time.
+ *
+ * <p>
+ * A new batch is requested once the previous batch has been received, so no more than {@code batchSize} values are
+ * ever outstanding. Since a publisher signals its subscriber serially, the collector is never invoked concurrently.
+ * </p>
+ *
+ * <p>
+ * When the stream completes, the target is resolved with the result of {@link StreamCollector#end(int, int, int)}.
+ * When the stream fails, or the collector throws, the target is failed. When the target is cancelled, the subscription
+ * is cancelled.
+ * </p>
+ *
+ * @param <S> The type of the values being collected.
+ * @param <T> The type the values are being collected into.
+ */
+public class CollectingSubscriber<S, T> implements Subscriber<S> {
+    private final StreamCollector<? super S, ? extends T> collector;
+    private final ResolvableFuture<T> target;
+    private final int batchSize;
+
+    /* only accessed from within the serialized signals */
+    private Subscription subscription;
+    private int received = 0;
+    private int remainingInBatch = 0;
+    private boolean done = false;
+
+    public CollectingSubscriber(final StreamCollector<? super S, ? extends T> collector,
+            final ResolvableFuture<T> target, final int batchSize) {
+        if (collector == null)
+            throw new NullPointerException("collector");
+
+        if (target == null)
+            throw new NullPointerException("target");
+
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batchSize must be positive");
+
+        this.collector = collector;
+        this.target = target;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onSubscribe(final Subscription s) {
+        if (s == null)
+            throw new NullPointerException("subscription");
+
+        if (subscription != null) {
+            s.cancel();
+            return;
+        }
+
+        subscription = s;
+
+        target.on(new FutureCancelled() {
+            @Override
+            public void cancelled() throws Exception {
+                s.cancel();
+            }
+        });
+
+        requestBatch();
+    }
+
+    @Override
+    public void onNext(final S value) {
+        if (value == null)
+            throw new NullPointerException("value");
+
+        if (done)
+            return;
+
+        try {
+            collector.resolved(value);
+        } catch (final Exception e) {
+            done = true;
+            subscription.cancel();
+            target.fail(e);
+            return;
+        }
+
+        received++;
+
+        if (--remainingInBatch == 0)
+            requestBatch();
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+        if (t == null)
+            throw new NullPointerException("error");
+
+        if (done)
+            return;
+
+        done = true;
+        target.fail(t);
+    }
+
+    @Override
+    public void onComplete() {
+        if (done)
+            return;
+
+        done = true;
+
+        final T result;
+
+        try {
+            result = collector.end(received, 0, 0);
+        } catch (final Exception e) {
+            target.fail(e);
+            return;
+        }
+
+        target.resolve(result);
+    }
+
+    private void requestBatch() {
+        remainingInBatch = batchSize;
+        subscription.request(batchSize);
+    }
+}
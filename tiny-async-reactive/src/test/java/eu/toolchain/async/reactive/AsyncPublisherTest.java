@@ -0,0 +1,194 @@
+package eu.toolchain.async.reactive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.TinyAsync;
+
+public class AsyncPublisherTest {
+    private AsyncFramework async;
+    private List<ResolvableFuture<Integer>> produced;
+    private RecordingSubscriber subscriber;
+
+    @Before
+    public void setup() {
+        async = TinyAsync.builder().build();
+        produced = new ArrayList<>();
+        subscriber = new RecordingSubscriber();
+    }
+
+    private AsyncProducer<Integer> pending() {
+        return new AsyncProducer<Integer>() {
+            @Override
+            public AsyncFuture<? extends Integer> next() throws Exception {
+                final ResolvableFuture<Integer> future = async.future();
+                produced.add(future);
+                return future;
+            }
+        };
+    }
+
+    private AsyncProducer<Integer> counting(final int count) {
+        return new AsyncProducer<Integer>() {
+            private int next = 0;
+
+            @Override
+            public AsyncFuture<? extends Integer> next() throws Exception {
+                if (next == count)
+                    return async.resolved(null);
+
+                return async.resolved(next++);
+            }
+        };
+    }
+
+    @Test
+    public void testNoProductionWithoutDemand() {
+        new AsyncPublisher<Integer>(pending()).subscribe(subscriber);
+        assertEquals(0, produced.size());
+
+        subscriber.subscription.request(2);
+        assertEquals(1, produced.size());
+
+        produced.get(0).resolve(1);
+        assertEquals(2, produced.size());
+
+        produced.get(1).resolve(2);
+        assertEquals(2, produced.size());
+
+        assertEquals(2, subscriber.values.size());
+    }
+
+    @Test
+    public void testCompletesOnNull() {
+        new AsyncPublisher<Integer>(counting(3)).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(3, subscriber.values.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void testSynchronousProductionDoesNotGrowStack() {
+        final int count = 100000;
+
+        new AsyncPublisher<Integer>(counting(count)).subscribe(subscriber);
+
+        for (int i = 0; i < count; i++)
+            subscriber.subscription.request(1);
+
+        subscriber.subscription.request(1);
+
+        assertEquals(count, subscriber.values.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void testFailedFuture() {
+        final Exception e = new Exception();
+
+        new AsyncPublisher<Integer>(pending()).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        produced.get(0).fail(e);
+
+        assertEquals(e, subscriber.error);
+    }
+
+    @Test
+    public void testCancel() {
+        new AsyncPublisher<Integer>(pending()).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+
+        assertTrue(produced.get(0).isCancelled());
+        assertEquals(null, subscriber.error);
+        assertEquals(false, subscriber.completed);
+    }
+
+    @Test
+    public void testCancelWhileProducing() {
+        final AsyncProducer<Integer> producer = new AsyncProducer<Integer>() {
+            @Override
+            public AsyncFuture<? extends Integer> next() throws Exception {
+                // the subscription is cancelled before the future is handed back to the publisher.
+                subscriber.subscription.cancel();
+
+                final ResolvableFuture<Integer> future = async.future();
+                produced.add(future);
+                return future;
+            }
+        };
+
+        new AsyncPublisher<Integer>(producer).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertEquals(1, produced.size());
+        assertTrue(produced.get(0).isCancelled());
+        assertEquals(null, subscriber.error);
+    }
+
+    @Test
+    public void testNonPositiveRequest() {
+        new AsyncPublisher<Integer>(pending()).subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSingleSubscriber() {
+        final AsyncPublisher<Integer> publisher = new AsyncPublisher<Integer>(pending());
+        final Subscriber<Integer> second = mock(Subscriber.class);
+
+        publisher.subscribe(subscriber);
+        publisher.subscribe(second);
+
+        verify(second).onSubscribe(any(Subscription.class));
+        verify(second).onError(any(IllegalStateException.class));
+        verify(second, never()).onComplete();
+    }
+
+    private static class RecordingSubscriber implements Subscriber<Integer> {
+        private final List<Integer> values = new ArrayList<>();
+
+        private Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+        }
+
+        @Override
+        public void onNext(Integer t) {
+            values.add(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package eu.toolchain.async.reactive;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+
+import eu.toolchain.async.AsyncFramework;
+import eu.toolchain.async.AsyncFuture;
+import eu.toolchain.async.FutureCancelled;
+import eu.toolchain.async.ResolvableFuture;
+import eu.toolchain.async.StreamCollector;
+import eu.toolchain.async.TinyAsync;
+
+public class CollectingSubscriberTest {
+    private static final int BATCH = 2;
+
+    private StreamCollector<Object, Object> collector;
+    private ResolvableFuture<Object> target;
+    private Subscription subscription;
+    private CollectingSubscriber<Object, Object> underTest;
+
+    private final Object value = new Object();
+    private final Object result = new Object();
+    private final Exception e = new Exception();
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() {
+        collector = mock(StreamCollector.class);
+        target = mock(ResolvableFuture.class);
+        subscription = mock(Subscription.class);
+        underTest = new CollectingSubscriber<Object, Object>(collector, target, BATCH);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroBatchSize() {
+        new CollectingSubscriber<Object, Object>(collector, target, 0);
+    }
+
+    @Test
+    public void testRequestsInBatches() throws Exception {
+        underTest.onSubscribe(subscription);
+        verify(subscription).request(BATCH);
+        verify(target).on(any(FutureCancelled.class));
+
+        underTest.onNext(value);
+        verify(subscription, times(1)).request(BATCH);
+
+        underTest.onNext(value);
+        verify(subscription, times(2)).request(BATCH);
+        verify(collector, times(2)).resolved(value);
+    }
+
+    @Test
+    public void testComplete() throws Exception {
+        when(collector.end(1, 0, 0)).thenReturn(result);
+
+        underTest.onSubscribe(subscription);
+        underTest.onNext(value);
+        underTest.onComplete();
+
+        verify(target).resolve(result);
+    }
+
+    @Test
+    public void testError() throws Exception {
+        underTest.onSubscribe(subscription);
+        underTest.onError(e);
+
+        verify(target).fail(e);
+        verify(collector, never()).end(any(Integer.class), any(Integer.class), any(Integer.class));
+    }
+
+    @Test
+    public void testCollectorThrows() throws Exception {
+        doThrow(e).when(collector).resolved(value);
+
+        underTest.onSubscribe(subscription);
+        underTest.onNext(value);
+        underTest.onComplete();
+
+        verify(subscription).cancel();
+        verify(target).fail(e);
+        verify(collector, never()).end(any(Integer.class), any(Integer.class), any(Integer.class));
+    }
+
+    @Test
+    public void testSecondSubscriptionCancelled() {
+        final Subscription second = mock(Subscription.class);
+
+        underTest.onSubscribe(subscription);
+        underTest.onSubscribe(second);
+
+        verify(second).cancel();
+        verify(second, never()).request(any(Long.class));
+    }
+
+    @Test
+    public void testCollectPublisher() throws Exception {
+        final AsyncFramework async = TinyAsync.builder().build();
+        final int count = 10;
+
+        final AsyncProducer<Integer> producer = new AsyncProducer<Integer>() {
+            private int next = 0;
+
+            @Override
+            public AsyncFuture<? extends Integer> next() throws Exception {
+                if (next == count)
+                    return async.resolved(null);
+
+                return async.resolved(next++);
+            }
+        };
+
+        final StreamCollector<Integer, Collection<Integer>> list = new StreamCollector<Integer, Collection<Integer>>() {
+            private final List<Integer> values = new ArrayList<>();
+
+            @Override
+            public void resolved(Integer result) throws Exception {
+                values.add(result);
+            }
+
+            @Override
+            public void failed(Throwable cause) throws Exception {
+            }
+
+            @Override
+            public void cancelled() throws Exception {
+            }
+
+            @Override
+            public Collection<Integer> end(int resolved, int failed, int cancelled) throws Exception {
+                return values;
+            }
+        };
+
+        final Collection<Integer> values = AsyncStreams.collect(async, AsyncStreams.publisher(producer), list, 3)
+                .get();
+
+        assertEquals(count, values.size());
+    }
+}